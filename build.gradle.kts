@@ -1,5 +1,13 @@
+import java.io.IOException
+import java.net.URI
+import java.net.http.HttpClient
+import java.net.http.HttpRequest
+import java.net.http.HttpResponse
+import java.util.concurrent.TimeUnit
+
 plugins {
     id("java")
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "org.example"
@@ -11,7 +19,8 @@ repositories {
 
 dependencies {
     // Logging
-    implementation("org.slf4j:slf4j-simple:2.0.16")
+    implementation("org.slf4j:slf4j-api:2.0.16")
+    implementation("ch.qos.logback:logback-classic:1.5.12")
 
     // Web Framework
     implementation("io.javalin:javalin:6.7.0")
@@ -20,6 +29,8 @@ dependencies {
     implementation("com.fasterxml.jackson.core:jackson-databind:2.15.2")
     implementation("com.fasterxml.jackson.core:jackson-core:2.15.2")
     implementation("com.fasterxml.jackson.datatype:jackson-datatype-jsr310")
+    implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-smile:2.15.2")
+    implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-cbor:2.15.2")
 
     // JWT (JSON Web Token)
     implementation("io.jsonwebtoken:jjwt-api:0.11.5")
@@ -44,5 +55,136 @@ dependencies {
 }
 
 tasks.test {
-    useJUnitPlatform()
-}
\ No newline at end of file
+    useJUnitPlatform {
+        excludeTags("resilience")
+    }
+}
+
+// Escenarios con la base de datos degradada (FaultInjectingDataSourceDecorator). Necesitan MySQL.
+tasks.register<Test>("resilienceTest") {
+    group = "verification"
+    description = "Runs the degraded-database load scenarios and writes build/reports/resilience."
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = sourceSets.test.get().runtimeClasspath
+    useJUnitPlatform {
+        includeTags("resilience")
+    }
+    systemProperty("resilience.reportDir", layout.buildDirectory.dir("reports/resilience").get().asFile.absolutePath)
+    (findProperty("resilience.phaseMillis") as String?)?.let { systemProperty("resilience.phaseMillis", it) }
+    outputs.upToDateWhen { false }
+    shouldRunAfter(tasks.test)
+}
+
+// Microbenchmarks en src/jmh. Ejecutar con ./gradlew jmh; el informe queda en build/results/jmh.
+jmh {
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+    resultFormat.set("JSON")
+}
+
+// Class-data sharing (AppCDS)
+// El archivo solo es válido con el mismo JDK y el mismo classpath, que además debe estar formado por JARs.
+val mainClassName = "org.example.Main"
+val cdsArchive = layout.buildDirectory.file("cds/app.jsa")
+val cdsClasspath = files(tasks.jar, configurations.runtimeClasspath)
+val appLauncher = javaToolchains.launcherFor(java.toolchain)
+
+tasks.register<JavaExec>("cdsArchive") {
+    group = "application"
+    description = "Runs Main in CDS training mode and dumps the classes it loaded into an AppCDS archive."
+    classpath = cdsClasspath
+    mainClass.set(mainClassName)
+    javaLauncher.set(appLauncher)
+    systemProperty("CDS_TRAINING", "true")
+    jvmArgs("-XX:ArchiveClassesAtExit=${cdsArchive.get().asFile.absolutePath}")
+    outputs.file(cdsArchive)
+    doFirst { cdsArchive.get().asFile.parentFile.mkdirs() }
+}
+
+tasks.register<JavaExec>("runWithCds") {
+    group = "application"
+    description = "Runs Main using the AppCDS archive."
+    dependsOn("cdsArchive")
+    classpath = cdsClasspath
+    mainClass.set(mainClassName)
+    javaLauncher.set(appLauncher)
+    jvmArgs("-XX:SharedArchiveFile=${cdsArchive.get().asFile.absolutePath}", "-Xshare:auto")
+}
+
+// Mide el tiempo hasta la primera respuesta 200 de /health, con el arranque por defecto y con el archivo AppCDS.
+// Requiere la base de datos configurada en .env y el puerto 8080 libre.
+tasks.register("startupBenchmark") {
+    group = "verification"
+    description = "Measures time to first successful request with default JVM flags and with the AppCDS archive."
+    dependsOn("cdsArchive")
+    val runs = (findProperty("startupBenchmark.runs") as String?)?.toInt() ?: 5
+    val maxCdsMillis = (findProperty("startupBenchmark.maxCdsMillis") as String?)?.toLong()
+    val report = layout.buildDirectory.file("reports/startup/startup-benchmark.txt")
+    outputs.file(report)
+    outputs.upToDateWhen { false }
+    doLast {
+        val javaExecutable = appLauncher.get().executablePath.asFile.absolutePath
+        val classpath = cdsClasspath.asPath
+        val archive = cdsArchive.get().asFile.absolutePath
+        val client = HttpClient.newHttpClient()
+        val health = HttpRequest.newBuilder(URI.create("http://localhost:8080/health")).build()
+
+        fun timeToFirstRequest(vararg jvmArgs: String): Long {
+            val command = listOf(javaExecutable) + jvmArgs + listOf("-cp", classpath, mainClassName)
+            val start = System.nanoTime()
+            val process = ProcessBuilder(command)
+                .directory(projectDir)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start()
+            try {
+                val deadline = start + TimeUnit.SECONDS.toNanos(60)
+                while (System.nanoTime() < deadline) {
+                    if (!process.isAlive) {
+                        throw GradleException("Main exited with code ${process.exitValue()} before becoming ready")
+                    }
+                    val ready = try {
+                        client.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200
+                    } catch (e: IOException) {
+                        false
+                    }
+                    if (ready) {
+                        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+                    }
+                    Thread.sleep(10)
+                }
+                throw GradleException("Main did not answer /health within 60 s")
+            } finally {
+                process.destroy()
+                process.waitFor()
+            }
+        }
+
+        // La referencia es el arranque por defecto (-Xshare:auto con el archivo CDS del JDK), no uno
+        // sin CDS: así la mejora medida es la que aporta el archivo de la aplicación.
+        // Una ejecución descartada por variante para no medir la caché de disco fría.
+        timeToFirstRequest()
+        timeToFirstRequest("-XX:SharedArchiveFile=$archive")
+        val baseline = (1..runs).map { timeToFirstRequest() }.sorted()
+        val cds = (1..runs).map { timeToFirstRequest("-XX:SharedArchiveFile=$archive") }.sorted()
+        val baselineMedian = baseline[baseline.size / 2]
+        val cdsMedian = cds[cds.size / 2]
+
+        val text = buildString {
+            appendLine("Time to first successful GET /health ($runs runs, ms)")
+            appendLine("default JVM: median=$baselineMedian min=${baseline.first()} max=${baseline.last()} samples=$baseline")
+            appendLine("with AppCDS: median=$cdsMedian min=${cds.first()} max=${cds.last()} samples=$cds")
+            appendLine("speedup: %.2fx".format(baselineMedian.toDouble() / cdsMedian))
+        }
+        report.get().asFile.apply {
+            parentFile.mkdirs()
+            writeText(text)
+        }
+        logger.lifecycle(text)
+
+        if (maxCdsMillis != null && cdsMedian > maxCdsMillis) {
+            throw GradleException("Startup regression: median with AppCDS is $cdsMedian ms (limit $maxCdsMillis ms)")
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package org.example.utils;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import javax.crypto.SecretKey;
+import java.security.SecureRandom;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Emisión de un token de login con Jwts.builder() frente a JwtMinter, con los mismos claims y clave.
+ * Ejecutar con -prof gc para comparar también los bytes reservados por operación.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(4)
+public class TokenMintingBenchmark {
+    private static final long EXPIRATION_TIME = 24 * 60 * 60 * 1000;
+
+    private SecretKey key;
+    private JwtMinter minter;
+
+    @Setup
+    public void setUp() {
+        byte[] secret = new byte[64];
+        new SecureRandom().nextBytes(secret);
+        key = Keys.hmacShaKeyFor(secret);
+        minter = new JwtMinter(key);
+    }
+
+    @Benchmark
+    public String jjwtBuilder() {
+        Date now = new Date();
+        return Jwts.builder()
+                .setSubject("42")
+                .claim("email", "waiter@restaurante.com")
+                .claim("role", "WAITER")
+                .setIssuedAt(now)
+                .setExpiration(new Date(now.getTime() + EXPIRATION_TIME))
+                .signWith(key)
+                .compact();
+    }
+
+    @Benchmark
+    public String jwtMinter() {
+        long nowMillis = System.currentTimeMillis();
+        return minter.mint(42, "waiter@restaurante.com", "WAITER", nowMillis / 1000, (nowMillis + EXPIRATION_TIME) / 1000);
+    }
+}
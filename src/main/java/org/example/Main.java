@@ -1,80 +1,219 @@
 package org.example;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import io.javalin.Javalin;
-import io.javalin.json.JavalinJackson;
+import org.example.config.AppConfig;
 import org.example.config.DatabaseConfig;
 import org.example.config.ExceptionHandlerConfig;
+import org.example.config.JacksonConfig;
+import org.example.config.WarmUp;
+import org.example.controllers.AdminController;
 import org.example.controllers.AuthController;
+import org.example.controllers.HealthController;
 import org.example.controllers.UserController;
+import org.example.controllers.UserEventsController;
+import org.example.daos.AuthAuditDAO;
+import org.example.daos.ShardedUserDAO;
 import org.example.daos.UserDAO;
 import org.example.mappers.UserMapper;
+import org.example.metrics.Metrics;
+import org.example.metrics.jfr.JfrRecorder;
+import org.example.metrics.jfr.TimedJsonMapper;
 import org.example.middlewares.AuthMiddleware;
+import org.example.middlewares.ConcurrencyLimitMiddleware;
+import org.example.middlewares.DeadlineMiddleware;
+import org.example.middlewares.RequestIdMiddleware;
 import org.example.repositories.UserRepository;
+import org.example.repositories.impl.InMemoryUserRepository;
+import org.example.repositories.impl.ResilientUserRepository;
 import org.example.repositories.impl.UserRepositoryImpl;
+import org.example.routes.AdminRoutes;
 import org.example.routes.AuthenticationRoutes;
+import org.example.routes.HealthRoutes;
 import org.example.routes.RouteHandler;
 import org.example.routes.UserRoutes;
 import org.example.services.AuthService;
 import org.example.services.UserService;
+import org.example.services.UserStatistics;
+import org.example.utils.AuthAuditQueue;
+import org.example.utils.Bulkhead;
+import org.example.utils.ContentNegotiation;
+import org.example.utils.CountingAsyncAppender;
+import org.example.utils.JWTUtil;
+import org.example.utils.SerializedResponseCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.List;
 
 public class Main {
 
+    private static final Logger logger = LoggerFactory.getLogger(Main.class);
+
+    // Basta con cargar las clases de cada ruta; la optimización del JIT no se guarda en el archivo.
+    private static final int CDS_TRAINING_ITERATIONS = 20;
+
     public static boolean isTesting = false;
 
+    // Estado aprendido del tráfico sintético del calentamiento que no debe condicionar al tráfico real.
+    private static Runnable resetAfterWarmUp = () -> { };
+
     public static void main(String[] args) {
+        if (AppConfig.isJfrOnStartup()) {
+            JfrRecorder.start();
+        }
         DatabaseConfig.init();
-        Javalin app = configureAndStartApp();
+        // Un único DAO para la aplicación y el calentamiento: con sharding, cada uno tiene su pool de hilos.
+        UserDAO userDAO = createUserDAO();
+        Javalin app = configureApp(userDAO);
+
+        // El puerto se abre tras calentar los componentes; /health informa "listo" tras calentar el HTTP.
+        boolean cdsTraining = AppConfig.isCdsTrainingRun();
+        WarmUp warmUp = null;
+        if (cdsTraining) {
+            warmUp = new WarmUp(userDAO, CDS_TRAINING_ITERATIONS, AppConfig.getWarmUpMaxMillis());
+        } else if (AppConfig.isWarmUpEnabled()) {
+            warmUp = new WarmUp(userDAO, AppConfig.getWarmUpIterations(), AppConfig.getWarmUpMaxMillis());
+        }
+        if (warmUp != null) {
+            warmUp.warmComponents();
+        }
+        app.start(8080);
+        if (warmUp != null) {
+            warmUp.warmHttp(8080);
+            resetAfterWarmUp.run();
+        }
+        HealthController.setReady(true);
         
         if (!isTesting) {
             setupShutdownHook(app);
         }
 
-        System.out.println("Server started on http://localhost:8080");
-        System.out.println("Initial admin user: ******** / **********");
+        // El archivo CDS se vuelca al salir la JVM, con las clases que cargaron el arranque y las peticiones.
+        if (cdsTraining) {
+            logger.info("CDS training run finished, exiting");
+            System.exit(0);
+        }
+
+        logger.info("Server started on http://localhost:8080");
+        logger.info("Initial admin user: ******** / **********");
     }
     
     public static Javalin configureAndStartApp() {
+        Javalin app = configureApp().start(8080);
+        HealthController.setReady(true);
+        return app;
+    }
+
+    public static Javalin configureApp() {
+        return configureApp(createUserDAO());
+    }
+
+    private static Javalin configureApp(UserDAO userDAO) {
+        ObjectMapper jacksonMapper = JacksonConfig.getObjectMapper();
+
         // Inyección de Dependencias
-        final UserDAO userDAO = new UserDAO();
-        final UserRepository userRepository = new UserRepositoryImpl(userDAO);
+        final UserRepository userRepository = createUserRepository(userDAO);
+        // La consulta de revocación usa la misma base de datos: comparte el cortocircuito de las lecturas.
+        JWTUtil.setRevocationBreaker(userRepository instanceof ResilientUserRepository resilient ? resilient.getBreaker() : null);
         final UserMapper userMapper = new UserMapper();
-        final AuthService authService = new AuthService(userRepository, userMapper);
+        final AuthAuditQueue authAuditQueue = new AuthAuditQueue(new AuthAuditDAO(),
+                AppConfig.getAuthAuditQueueCapacity(), AppConfig.getAuthAuditBatchSize());
+        final AuthService authService = new AuthService(userRepository, userMapper, authAuditQueue);
         final UserService userService = new UserService(userRepository, userMapper);
+        final RequestIdMiddleware requestIdMiddleware = new RequestIdMiddleware();
         final AuthMiddleware authMiddleware = new AuthMiddleware();
-        final AuthController authController = new AuthController(authService);
-        final UserController userController = new UserController(userService);
+        final DeadlineMiddleware deadlineMiddleware = new DeadlineMiddleware();
+        final ConcurrencyLimitMiddleware concurrencyLimit = new ConcurrencyLimitMiddleware(
+                AppConfig.isConcurrencyLimiterEnabled(),
+                AppConfig.getConcurrencyLimiterInitial(),
+                AppConfig.getConcurrencyLimiterMin(),
+                AppConfig.getConcurrencyLimiterMax());
+        final ContentNegotiation contentNegotiation = new ContentNegotiation();
+        final AuthController authController = new AuthController(authService, contentNegotiation);
+        final SerializedResponseCache userListCache = new SerializedResponseCache(AppConfig.getUserListCacheTtlMillis(), 64);
+        userService.addChangeListener(user -> userListCache.invalidate());
+        final UserStatistics userStatistics = new UserStatistics(userDAO);
+        userService.addChangeListener(userStatistics);
+        final Bulkhead exportPermits = new Bulkhead("export", AppConfig.getExportMaxConcurrent(), 0);
+        final UserController userController = new UserController(userService, userListCache, contentNegotiation,
+                userStatistics, exportPermits, AppConfig.getExportWriteTimeoutMillis());
+        final UserEventsController userEventsController = new UserEventsController(jacksonMapper);
+        userService.addChangeListener(userEventsController);
+        final AdminController adminController = new AdminController();
+        final HealthController healthController = new HealthController();
         final List<RouteHandler> routeHandlers = List.of(
-                new AuthenticationRoutes(authController, authMiddleware),
-                new UserRoutes(userController, authMiddleware)
+                new AuthenticationRoutes(authController, concurrencyLimit, deadlineMiddleware),
+                new UserRoutes(userController, userEventsController, concurrencyLimit, deadlineMiddleware),
+                new AdminRoutes(adminController),
+                new HealthRoutes(healthController)
         );
+        Metrics.register("logging.droppedEvents", CountingAsyncAppender::getDroppedCount);
+        resetAfterWarmUp = () -> {
+            concurrencyLimit.reset();
+            userListCache.invalidate();
+        };
 
         // Configuración de Javalin
-        ObjectMapper jacksonMapper = new ObjectMapper().registerModule(new JavaTimeModule());
         Javalin app = Javalin.create(config -> {
-            config.jsonMapper(new JavalinJackson(jacksonMapper, false));
+            config.jsonMapper(new TimedJsonMapper(jacksonMapper));
             config.bundledPlugins.enableCors(cors -> cors.addRule(it -> {
                 it.reflectClientOrigin = true;
                 it.allowCredentials = true;
                 it.exposeHeader("Authorization");
+                it.exposeHeader(RequestIdMiddleware.HEADER);
+                it.exposeHeader(RequestIdMiddleware.STALE_HEADER);
+            }));
+            // Al parar el servidor, antes de que se cierre el pool, se vuelcan los eventos de auditoría pendientes
+            // y se detienen los hilos de fondo del repositorio.
+            config.events(events -> events.serverStopped(() -> {
+                authAuditQueue.close(5000);
+                userRepository.close();
             }));
 
         });
 
+        app.before(requestIdMiddleware.before());
+        app.before(deadlineMiddleware.before());
+        app.after(concurrencyLimit.after());
+        app.after(requestIdMiddleware.after());
+        // El plazo de la ruta y el límite de concurrencia van antes que la autenticación: la consulta de
+        // revocación también usa el pool.
+        app.beforeMatched(deadlineMiddleware.beforeMatched());
+        app.beforeMatched(concurrencyLimit.before());
+        app.beforeMatched(authMiddleware.accessManager());
         routeHandlers.forEach(handler -> handler.register(app));
+        DatabaseConfig.capConnectionTimeout(deadlineMiddleware.getLongestRouteBudgetMillis());
         ExceptionHandlerConfig.register(app);
 
-        return app.start(8080);
+        return app;
+    }
+
+    private static UserDAO createUserDAO() {
+        return DatabaseConfig.isSharded() ? new ShardedUserDAO() : new UserDAO();
+    }
+
+    private static UserRepository createUserRepository(UserDAO userDAO) {
+        if ("memory".equalsIgnoreCase(AppConfig.getUserRepositoryType())) {
+            return new InMemoryUserRepository(userDAO, AppConfig.getUserStoreRefreshSeconds());
+        }
+        UserRepository repository = new UserRepositoryImpl(userDAO, AppConfig.getEmailFilterCapacity());
+        if (!AppConfig.isUserReadBreakerEnabled()) {
+            return repository;
+        }
+        return new ResilientUserRepository(repository,
+                AppConfig.getUserReadBreakerFailureRate(),
+                AppConfig.getUserReadBreakerSlowMillis(),
+                AppConfig.getUserReadBreakerOpenMillis(),
+                AppConfig.getUserReadSnapshotMaxEntries());
     }
 
     private static void setupShutdownHook(Javalin app) {
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
-            System.out.println("Closing application via shutdown hook...");
-            DatabaseConfig.close();
+            logger.info("Closing application via shutdown hook...");
             app.stop();
+            JWTUtil.shutdown();
+            DatabaseConfig.close();
         }));
     }
 }
\ No newline at end of file
@@ -2,15 +2,22 @@ package org.example.config;
 
 import io.github.cdimascio.dotenv.Dotenv;
 import org.example.Main;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.List;
 
 public class AppConfig {
-    
+
+    private static final Logger logger = LoggerFactory.getLogger(AppConfig.class);
+
     private static Dotenv dotenv;
 
     private static synchronized Dotenv getDotenv() {
         if (dotenv == null) {
             String filename = Main.isTesting ? ".env.test" : ".env";
-            System.out.println("LAZY LOADING a partir de: " + filename);
+            logger.info("LAZY LOADING a partir de: {}", filename);
             dotenv = Dotenv.configure()
                     .filename(filename)
                     .directory("./")
@@ -36,17 +43,253 @@ public class AppConfig {
         return getRequiredEnv("JWT_SECRET_KEY");
     }
 
+    /**
+     * Implementación de UserRepository: "jdbc" (por defecto) o "memory".
+     */
+    public static String getUserRepositoryType() {
+        return getOptionalEnv("USER_REPOSITORY", "jdbc");
+    }
+
+    /**
+     * Cada cuántos segundos el repositorio en memoria recarga los usuarios desde MySQL; 0 lo desactiva.
+     */
+    public static int getUserStoreRefreshSeconds() {
+        return getIntEnv("USER_STORE_REFRESH_SECONDS", 0);
+    }
+
+    public static int getBlacklistQueueCapacity() {
+        return getIntEnv("BLACKLIST_QUEUE_CAPACITY", 10000);
+    }
+
+    public static int getBlacklistBatchSize() {
+        return getIntEnv("BLACKLIST_BATCH_SIZE", 500);
+    }
+
+    public static int getAuthAuditQueueCapacity() {
+        return getIntEnv("AUTH_AUDIT_QUEUE_CAPACITY", 8192);
+    }
+
+    public static int getAuthAuditBatchSize() {
+        return getIntEnv("AUTH_AUDIT_BATCH_SIZE", 500);
+    }
+
+    /**
+     * Activa la medición de sentencias SQL y el log de consultas lentas.
+     */
+    public static boolean isDbInstrumentationEnabled() {
+        return getBooleanEnv("DB_INSTRUMENTATION", false);
+    }
+
+    public static int getDbSlowQueryMillis() {
+        return getIntEnv("DB_SLOW_QUERY_MS", 200);
+    }
+
+    public static boolean isUserReadBreakerEnabled() {
+        return getBooleanEnv("USER_READ_BREAKER_ENABLED", true);
+    }
+
+    /**
+     * Porcentaje de lecturas fallidas o lentas en la ventana a partir del cual se abre el circuito.
+     */
+    public static int getUserReadBreakerFailureRate() {
+        return getIntEnv("USER_READ_BREAKER_FAILURE_RATE", 50);
+    }
+
+    public static int getUserReadBreakerSlowMillis() {
+        return getIntEnv("USER_READ_BREAKER_SLOW_MS", 2000);
+    }
+
+    public static int getUserReadBreakerOpenMillis() {
+        return getIntEnv("USER_READ_BREAKER_OPEN_MS", 5000);
+    }
+
+    public static int getUserReadSnapshotMaxEntries() {
+        return getIntEnv("USER_READ_SNAPSHOT_MAX", 10000);
+    }
+
+    /**
+     * Tiempo durante el que un token que la base de datos dio por no revocado se sigue aceptando
+     * mientras el circuito está abierto.
+     */
+    public static int getRevocationNegativeCacheMillis() {
+        return getIntEnv("REVOCATION_NEGATIVE_CACHE_MS", 10000);
+    }
+
+    public static boolean isConcurrencyLimiterEnabled() {
+        return getBooleanEnv("LIMITER_ENABLED", true);
+    }
+
+    /**
+     * Límite inicial de peticiones en vuelo de cada limitador; después se adapta entre LIMITER_MIN y LIMITER_MAX.
+     */
+    public static int getConcurrencyLimiterInitial() {
+        return getIntEnv("LIMITER_INITIAL", 10);
+    }
+
+    public static int getConcurrencyLimiterMin() {
+        return getIntEnv("LIMITER_MIN", 1);
+    }
+
+    public static int getConcurrencyLimiterMax() {
+        return getIntEnv("LIMITER_MAX", 50);
+    }
+
+    /**
+     * Clase que implementa DataSourceDecorator para envolver los pools; vacío para usarlos tal cual.
+     */
+    public static String getDataSourceDecorator() {
+        return getOptionalEnv("DB_DATASOURCE_DECORATOR", "");
+    }
+
+    public static int getDbPoolSize() {
+        return getIntEnv("DB_POOL_SIZE", 12);
+    }
+
+    /**
+     * Conexiones que una clase de carga puede usar a la vez en cada pool (BULKHEAD_<CLASE>_PERMITS).
+     * Con la suma de todas igual al tamaño del pool, cada clase tiene sus conexiones garantizadas.
+     */
+    public static int getBulkheadPermits(WorkloadClass workloadClass) {
+        return getIntEnv("BULKHEAD_" + workloadClass.name() + "_PERMITS", workloadClass.getDefaultPermits());
+    }
+
+    public static int getBulkheadTimeoutMillis(WorkloadClass workloadClass) {
+        return getIntEnv("BULKHEAD_" + workloadClass.name() + "_TIMEOUT_MS", workloadClass.getDefaultTimeoutMillis());
+    }
+
+    /**
+     * Vida máxima de la respuesta cacheada de GET /api/users. Las escrituras locales la invalidan antes.
+     */
+    public static int getUserListCacheTtlMillis() {
+        return getIntEnv("USER_LIST_CACHE_TTL_MS", 30000);
+    }
+
+    /**
+     * Exportaciones de usuarios que pueden ejecutarse a la vez; el resto recibe 503 sin esperar.
+     * Por defecto coincide con el cupo de conexiones de la clase EXPORT.
+     */
+    public static int getExportMaxConcurrent() {
+        return getIntEnv("EXPORT_MAX_CONCURRENT", getBulkheadPermits(WorkloadClass.EXPORT));
+    }
+
+    /**
+     * Tiempo máximo que una exportación espera a que el cliente lea antes de cortar la conexión.
+     */
+    public static int getExportWriteTimeoutMillis() {
+        return getIntEnv("EXPORT_WRITE_TIMEOUT_MS", 10000);
+    }
+
+    /**
+     * Número de usuarios para el que se dimensiona el filtro de emails registrados (1 % de falsos positivos).
+     */
+    public static int getEmailFilterCapacity() {
+        return getIntEnv("EMAIL_FILTER_CAPACITY", 100000);
+    }
+
+    /**
+     * URLs JDBC de los shards de usuarios, separadas por comas. Vacío desactiva el sharding.
+     * Para probarlo en local basta con varios esquemas del mismo MySQL, por ejemplo
+     * jdbc:mysql://localhost:3306/users_0?createDatabaseIfNotExist=true,jdbc:mysql://localhost:3306/users_1?createDatabaseIfNotExist=true
+     */
+    public static List<String> getDbShardUrls() {
+        String value = getOptionalEnv("DB_SHARD_URLS", "");
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .toList();
+    }
+
+    public static int getDbShardPoolSize() {
+        return getIntEnv("DB_SHARD_POOL_SIZE", 12);
+    }
+
+    /**
+     * Activa el calentamiento previo a abrir el tráfico. Termina al completar las iteraciones
+     * o al agotar WARMUP_MAX_MS, lo que ocurra primero.
+     */
+    public static boolean isWarmUpEnabled() {
+        return getBooleanEnv("WARMUP_ENABLED", false);
+    }
+
+    public static int getWarmUpIterations() {
+        return getIntEnv("WARMUP_ITERATIONS", 500);
+    }
+
+    public static int getWarmUpMaxMillis() {
+        return getIntEnv("WARMUP_MAX_MS", 20000);
+    }
+
+    /**
+     * Ejecución de entrenamiento para el archivo AppCDS: arranca, recorre las rutas principales y termina.
+     */
+    public static boolean isCdsTrainingRun() {
+        return getBooleanEnv("CDS_TRAINING", false);
+    }
+
+    /**
+     * Inicia la grabación continua de JFR al arrancar; también puede iniciarse desde /api/admin/jfr/start.
+     */
+    public static boolean isJfrOnStartup() {
+        return getBooleanEnv("JFR_ON_STARTUP", false);
+    }
+
+    public static int getJfrMaxAgeMinutes() {
+        return getIntEnv("JFR_MAX_AGE_MINUTES", 30);
+    }
+
+    /**
+     * Umbral de un evento propio de JFR, leído de JFR_THRESHOLD_<EVENTO>_MS (p. ej. JFR_THRESHOLD_JWT_VERIFY_MS).
+     */
+    public static int getJfrThresholdMillis(String eventKey, int defaultMillis) {
+        return getIntEnv("JFR_THRESHOLD_" + eventKey + "_MS", defaultMillis);
+    }
+
+    /**
+     * Plazo por defecto de un grupo de rutas, leído de DEADLINE_<GRUPO>_MS (p. ej. DEADLINE_AUTH_MS).
+     */
+    public static int getRouteDeadlineMillis(String group, int defaultMillis) {
+        return getIntEnv("DEADLINE_" + group + "_MS", defaultMillis);
+    }
+
     private static String getRequiredEnv(String key) {
+        String value = lookup(key);
+        if (value == null) {
+            logger.error("La variable de entorno requerida '{}' no está definida. Asegúrate de tener el archivo .env o .env.test adecuado en la raíz del proyecto.", key);
+            throw new RuntimeException("Variable de entorno requerida no encontrada: " + key);
+        }
+        return value;
+    }
+
+    private static String getOptionalEnv(String key, String defaultValue) {
+        String value = lookup(key);
+        return value != null ? value : defaultValue;
+    }
+
+    private static int getIntEnv(String key, int defaultValue) {
+        String value = lookup(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("La variable de entorno '" + key + "' debe ser un número entero: " + value);
+        }
+    }
+
+    private static boolean getBooleanEnv(String key, boolean defaultValue) {
+        String value = lookup(key);
+        return value != null ? Boolean.parseBoolean(value.trim()) : defaultValue;
+    }
+
+    private static String lookup(String key) {
         String value = getDotenv().get(key);
-        
         if (value == null) {
-            value = System.getenv(key);
+            value = System.getProperty(key);
         }
         if (value == null) {
-            System.err.println("Error: La variable de entorno requerida '" + key + "' no está definida.");
-            System.err.println("Asegúrate de tener el archivo .env o .env.test adecuado en la raíz del proyecto.");
-            throw new RuntimeException("Variable de entorno requerida no encontrada: " + key);
+            value = System.getenv(key);
         }
         return value;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,15 @@
+package org.example.config;
+
+import javax.sql.DataSource;
+
+/**
+ * Punto de extensión para envolver los DataSource de DatabaseConfig. La implementación se indica por
+ * nombre de clase en DB_DATASOURCE_DECORATOR y necesita un constructor público sin argumentos.
+ * Lo usan las pruebas de resiliencia para simular una base de datos lenta o con fallos.
+ */
+public interface DataSourceDecorator {
+    /**
+     * @param poolName "primary" o "shard-N".
+     */
+    DataSource decorate(String poolName, DataSource dataSource);
+}
@@ -3,36 +3,78 @@ package org.example.config;
 import at.favre.lib.crypto.bcrypt.BCrypt;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import org.example.metrics.JdbcInstrumentation;
+import org.example.metrics.Metrics;
+import org.example.metrics.jfr.PoolAcquireEvent;
 import org.example.models.Role;
+import org.example.utils.Bulkhead;
+import org.example.utils.ConsistentHashRing;
+import org.example.utils.RequestContext;
 import org.intellij.lang.annotations.Language;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class DatabaseConfig {
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseConfig.class);
     private static HikariDataSource dataSource;
+    // Los DataSource por los que se piden las conexiones: el pool, o el pool envuelto por el decorador.
+    private static DataSource connectionSource;
+    private static List<DataSource> shardConnectionSources = List.of();
+    private static DataSourceDecorator decorator;
+    private static boolean instrumentationEnabled;
+    private static List<HikariDataSource> shardDataSources = List.of();
+    private static ConsistentHashRing shardRing;
+    private static String[] shardPoolNames = new String[0];
+    private static Map<WorkloadClass, Bulkhead> primaryBulkheads = Map.of();
+    private static List<Map<WorkloadClass, Bulkhead>> shardBulkheads = List.of();
+
+    private static final int VIRTUAL_NODES_PER_SHARD = 128;
+
+    private static final long CONNECTION_TIMEOUT_MILLIS = 30000;
+    // Mínimo que admite Hikari para connectionTimeout.
+    private static final long MIN_CONNECTION_TIMEOUT_MILLIS = 250;
 
     public static void init() {
         if (dataSource != null && !dataSource.isClosed()) {
             return;
         }
         try {
-            HikariConfig config = createHikariConfig();
+            HikariConfig config = createHikariConfig(AppConfig.getDbUrl(), AppConfig.getDbPoolSize());
             dataSource = new HikariDataSource(config);
+            decorator = loadDecorator(AppConfig.getDataSourceDecorator());
+            connectionSource = decorate("primary", dataSource);
+            primaryBulkheads = createBulkheads("primary");
+            instrumentationEnabled = AppConfig.isDbInstrumentationEnabled();
+            if (instrumentationEnabled) {
+                JdbcInstrumentation.setSlowQueryThresholdMillis(AppConfig.getDbSlowQueryMillis());
+            }
             initDatabaseSchema();
+            initShards(AppConfig.getDbShardUrls());
         } catch (Exception e) {
-            System.err.println("Error fatal al inicializar la base de datos: " + e.getMessage());
+            logger.error("Error fatal al inicializar la base de datos: {}", e.getMessage());
             throw new RuntimeException("No se pudo inicializar la conexión con la base de datos.", e);
         }
     }
 
-    private static HikariConfig createHikariConfig() {
+    private static HikariConfig createHikariConfig(String jdbcUrl, int maximumPoolSize) {
         HikariConfig config = new HikariConfig();
-        config.setJdbcUrl(AppConfig.getDbUrl());
+        config.setJdbcUrl(jdbcUrl);
         config.setUsername(AppConfig.getDbUser());
         config.setPassword(AppConfig.getDbPassword());
-        config.setMaximumPoolSize(10);
+        config.setMaximumPoolSize(maximumPoolSize);
         config.setMinimumIdle(2);
-        config.setConnectionTimeout(30000);
+        config.setConnectionTimeout(CONNECTION_TIMEOUT_MILLIS);
         config.setIdleTimeout(600000);
         config.setMaxLifetime(1800000);
         config.addDataSourceProperty("cachePrepStmts", "true");
@@ -41,11 +83,250 @@ public class DatabaseConfig {
         return config;
     }
 
+    /**
+     * Acota la espera de Hikari por una conexión, que no se puede limitar por llamada. Con el plazo más
+     * largo de las rutas como tope, una petición con plazo no sigue esperando al pool mucho después de
+     * vencer; acquire() devuelve la conexión si llega tarde. Con 0 se mantiene el valor por defecto.
+     */
+    public static void capConnectionTimeout(long maxMillis) {
+        if (maxMillis <= 0) {
+            return;
+        }
+        long timeout = Math.max(MIN_CONNECTION_TIMEOUT_MILLIS, Math.min(CONNECTION_TIMEOUT_MILLIS, maxMillis));
+        if (dataSource != null && !dataSource.isClosed()) {
+            dataSource.getHikariConfigMXBean().setConnectionTimeout(timeout);
+        }
+        for (HikariDataSource shardDataSource : shardDataSources) {
+            shardDataSource.getHikariConfigMXBean().setConnectionTimeout(timeout);
+        }
+    }
+
+    /**
+     * Conexión sin cupo de carga, para tareas de arranque y mantenimiento. Las consultas de los DAOs
+     * deben usar getConnection(WorkloadClass).
+     */
     public static Connection getConnection() throws SQLException {
+        checkInitialized();
+        return acquire(connectionSource, "primary", null);
+    }
+
+    /**
+     * Conexión del pool principal dentro del cupo de la clase de carga. Si el cupo sigue lleno pasado su
+     * timeout, lanza SQLTransientConnectionException, que la API responde con 503.
+     */
+    public static Connection getConnection(WorkloadClass workloadClass) throws SQLException {
+        checkInitialized();
+        return acquire(connectionSource, "primary", primaryBulkheads.get(workloadClass));
+    }
+
+    public static boolean isSharded() {
+        return !shardDataSources.isEmpty();
+    }
+
+    public static int getShardCount() {
+        return shardDataSources.size();
+    }
+
+    /**
+     * Shard que guarda al usuario con ese id, según el anillo de hash consistente.
+     */
+    public static int getShardFor(int userId) {
+        return shardRing.nodeFor(userId);
+    }
+
+    public static Connection getShardConnection(int shard) throws SQLException {
+        checkShard(shard);
+        return acquire(shardConnectionSources.get(shard), shardPoolNames[shard], null);
+    }
+
+    public static Connection getShardConnection(int shard, WorkloadClass workloadClass) throws SQLException {
+        checkShard(shard);
+        return acquire(shardConnectionSources.get(shard), shardPoolNames[shard], shardBulkheads.get(shard).get(workloadClass));
+    }
+
+    private static void checkInitialized() throws SQLException {
         if (dataSource == null || dataSource.isClosed()) {
             throw new SQLException("El pool de conexiones (DataSource) no ha sido inicializado o está cerrado.");
         }
-        return dataSource.getConnection();
+    }
+
+    private static void checkShard(int shard) throws SQLException {
+        if (shard < 0 || shard >= shardDataSources.size()) {
+            throw new SQLException("No existe el shard " + shard + ".");
+        }
+    }
+
+    private static Connection acquire(DataSource source, String poolName, Bulkhead bulkhead) throws SQLException {
+        Long deadline = RequestContext.getDeadline();
+        if (deadline != null && RequestContext.isDeadlineExceeded()) {
+            throw new SQLTimeoutException("Request deadline exceeded before acquiring a connection from " + poolName);
+        }
+        PoolAcquireEvent event = new PoolAcquireEvent();
+        long start = System.nanoTime();
+        event.begin();
+        boolean failed = true;
+        Connection connection;
+        long acquireNanos;
+        try {
+            if (bulkhead != null) {
+                acquirePermit(bulkhead);
+            }
+            try {
+                connection = source.getConnection();
+            } catch (SQLException | RuntimeException e) {
+                if (bulkhead != null) {
+                    bulkhead.release();
+                }
+                throw e;
+            }
+            // La espera de Hikari no se puede acotar por llamada: si el plazo venció mientras tanto, se devuelve.
+            if (deadline != null && RequestContext.isDeadlineExceeded()) {
+                connection.close();
+                if (bulkhead != null) {
+                    bulkhead.release();
+                }
+                throw new SQLTimeoutException("Request deadline exceeded while acquiring a connection from " + poolName);
+            }
+            acquireNanos = System.nanoTime() - start;
+            failed = false;
+        } finally {
+            // Las esperas que terminan en error (cupo lleno, pool agotado, plazo vencido) son las que más interesa ver.
+            event.end();
+            if (event.shouldCommit()) {
+                event.requestId = RequestContext.getRequestId();
+                event.pool = poolName;
+                event.workload = bulkhead != null ? bulkhead.getName() : null;
+                event.failed = failed;
+                event.commit();
+            }
+        }
+        if (instrumentationEnabled) {
+            connection = JdbcInstrumentation.wrap(connection, acquireNanos);
+        }
+        if (deadline != null) {
+            connection = withDeadline(connection, deadline);
+        }
+        return bulkhead != null ? releasingPermitOnClose(connection, bulkhead) : connection;
+    }
+
+    private static void acquirePermit(Bulkhead bulkhead) throws SQLException {
+        long remainingNanos = RequestContext.remainingNanos();
+        boolean acquired;
+        try {
+            acquired = bulkhead.tryAcquire(remainingNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for bulkhead " + bulkhead.getName());
+        }
+        if (!acquired && remainingNanos < bulkhead.getTimeoutNanos()) {
+            throw new SQLTimeoutException("Request deadline exceeded while waiting for bulkhead " + bulkhead.getName());
+        }
+        if (!acquired) {
+            throw new SQLTransientConnectionException("Bulkhead " + bulkhead.getName() + " is saturated");
+        }
+    }
+
+    // Cada sentencia creada recibe como timeout lo que le queda a la petición, redondeado al segundo superior.
+    private static Connection withDeadline(Connection connection, long deadline) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    String name = method.getName();
+                    boolean createsStatement = name.equals("createStatement") || name.equals("prepareStatement") || name.equals("prepareCall");
+                    long remainingNanos = deadline - System.nanoTime();
+                    if (createsStatement && remainingNanos <= 0) {
+                        throw new SQLTimeoutException("Request deadline exceeded before executing a statement");
+                    }
+                    Object result;
+                    try {
+                        result = method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    if (createsStatement && result instanceof Statement statement) {
+                        statement.setQueryTimeout((int) Math.max(1, (TimeUnit.NANOSECONDS.toMillis(remainingNanos) + 999) / 1000));
+                    }
+                    return result;
+                });
+    }
+
+    // El permiso se devuelve una sola vez, al cerrar la conexión, aunque close() se llame varias veces.
+    private static Connection releasingPermitOnClose(Connection connection, Bulkhead bulkhead) {
+        AtomicBoolean released = new AtomicBoolean(false);
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close") && method.getParameterCount() == 0) {
+                        try {
+                            connection.close();
+                        } finally {
+                            if (released.compareAndSet(false, true)) {
+                                bulkhead.release();
+                            }
+                        }
+                        return null;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    private static DataSourceDecorator loadDecorator(String className) {
+        if (className == null || className.isBlank()) {
+            return null;
+        }
+        try {
+            DataSourceDecorator loaded = (DataSourceDecorator) Class.forName(className.trim())
+                    .getDeclaredConstructor()
+                    .newInstance();
+            logger.warn("DataSource decorado con {}", className);
+            return loaded;
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new IllegalStateException("No se pudo cargar el decorador de DataSource '" + className + "': " + e.getMessage(), e);
+        }
+    }
+
+    private static DataSource decorate(String poolName, DataSource source) {
+        return decorator != null ? decorator.decorate(poolName, source) : source;
+    }
+
+    private static Map<WorkloadClass, Bulkhead> createBulkheads(String poolName) {
+        Map<WorkloadClass, Bulkhead> bulkheads = new EnumMap<>(WorkloadClass.class);
+        for (WorkloadClass workloadClass : WorkloadClass.values()) {
+            Bulkhead bulkhead = new Bulkhead(workloadClass.name(),
+                    AppConfig.getBulkheadPermits(workloadClass),
+                    AppConfig.getBulkheadTimeoutMillis(workloadClass));
+            String prefix = "bulkhead." + poolName + "." + workloadClass.name();
+            Metrics.register(prefix + ".permits", bulkhead::getMaxPermits);
+            Metrics.register(prefix + ".inUse", bulkhead::getInUse);
+            Metrics.register(prefix + ".waiting", bulkhead::getWaiting);
+            Metrics.register(prefix + ".rejected", bulkhead::getRejectedCount);
+            bulkheads.put(workloadClass, bulkhead);
+        }
+        return bulkheads;
+    }
+
+    /**
+     * Abre de una vez todas las conexiones del pool: las pide sin devolverlas hasta llegar al máximo.
+     */
+    public static void prefillPool() {
+        List<Connection> borrowed = new ArrayList<>();
+        try {
+            for (int i = 0; i < dataSource.getMaximumPoolSize(); i++) {
+                borrowed.add(dataSource.getConnection());
+            }
+        } catch (SQLException e) {
+            logger.warn("No se pudo llenar el pool de conexiones: {}", e.getMessage());
+        } finally {
+            for (Connection connection : borrowed) {
+                try {
+                    connection.close();
+                } catch (SQLException ignored) {
+                }
+            }
+        }
+        logger.info("Pool de conexiones abierto con {} conexiones", borrowed.size());
     }
 
     private static void initDatabaseSchema() {
@@ -53,13 +334,16 @@ public class DatabaseConfig {
         String createUsersTableSQL = "CREATE TABLE IF NOT EXISTS users (id INT AUTO_INCREMENT PRIMARY KEY, first_name VARCHAR(100) NOT NULL, middle_name VARCHAR(100), last_name VARCHAR(100) NOT NULL, email VARCHAR(255) UNIQUE NOT NULL, password VARCHAR(255) NOT NULL, role VARCHAR(20) NOT NULL, created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, INDEX idx_email (email)) ENGINE=InnoDB;";
         @Language("MySQL")
         String createBlacklistTableSQL = "CREATE TABLE IF NOT EXISTS jwt_blacklist (id INT AUTO_INCREMENT PRIMARY KEY, token TEXT NOT NULL, expiry_date TIMESTAMP NOT NULL) ENGINE=InnoDB;";
+        @Language("MySQL")
+        String createAuthAuditTableSQL = "CREATE TABLE IF NOT EXISTS auth_audit (id BIGINT AUTO_INCREMENT PRIMARY KEY, event_type VARCHAR(20) NOT NULL, user_id INT, email VARCHAR(255), ip VARCHAR(45), occurred_at TIMESTAMP(3) NOT NULL, INDEX idx_auth_audit_occurred_at (occurred_at), INDEX idx_auth_audit_user_id (user_id)) ENGINE=InnoDB;";
 
         try (Connection conn = getConnection(); Statement stmt = conn.createStatement()) {
             stmt.execute(createUsersTableSQL);
             stmt.execute(createBlacklistTableSQL);
+            stmt.execute(createAuthAuditTableSQL);
             createInitialAdminUser(conn);
         } catch (SQLException e) {
-            System.err.println("Error al inicializar el esquema de la base de datos: " + e.getMessage());
+            logger.error("Error al inicializar el esquema de la base de datos: {}", e.getMessage());
             throw new RuntimeException("Error durante la inicialización de la BD.", e);
         }
     }
@@ -86,7 +370,91 @@ public class DatabaseConfig {
         }
     }
 
+    /**
+     * Crea un pool por shard. La base principal guarda user_directory, que reparte los ids y resuelve
+     * email → id sin consultar todos los shards; cada shard guarda las filas completas de sus usuarios.
+     * Los usuarios de la tabla principal que aún no están en el directorio (el administrador inicial o
+     * los de antes de activar el sharding) se copian a su shard conservando el id.
+     */
+    private static void initShards(List<String> shardUrls) throws SQLException {
+        if (shardUrls.isEmpty()) {
+            return;
+        }
+        List<HikariDataSource> shards = new ArrayList<>();
+        for (String shardUrl : shardUrls) {
+            shards.add(new HikariDataSource(createHikariConfig(shardUrl, AppConfig.getDbShardPoolSize())));
+        }
+        shardDataSources = List.copyOf(shards);
+        shardPoolNames = new String[shards.size()];
+        List<Map<WorkloadClass, Bulkhead>> bulkheads = new ArrayList<>();
+        List<DataSource> connectionSources = new ArrayList<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            shardPoolNames[shard] = "shard-" + shard;
+            bulkheads.add(createBulkheads(shardPoolNames[shard]));
+            connectionSources.add(decorate(shardPoolNames[shard], shards.get(shard)));
+        }
+        shardBulkheads = List.copyOf(bulkheads);
+        shardConnectionSources = List.copyOf(connectionSources);
+        shardRing = new ConsistentHashRing(shards.size(), VIRTUAL_NODES_PER_SHARD);
+
+        @Language("MySQL")
+        String createDirectorySQL = "CREATE TABLE IF NOT EXISTS user_directory (id INT AUTO_INCREMENT PRIMARY KEY, email VARCHAR(255) UNIQUE NOT NULL) ENGINE=InnoDB;";
+        @Language("MySQL")
+        String createShardUsersSQL = "CREATE TABLE IF NOT EXISTS users (id INT PRIMARY KEY, first_name VARCHAR(100) NOT NULL, middle_name VARCHAR(100), last_name VARCHAR(100) NOT NULL, email VARCHAR(255) UNIQUE NOT NULL, password VARCHAR(255) NOT NULL, role VARCHAR(20) NOT NULL, created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP) ENGINE=InnoDB;";
+
+        try (Connection conn = getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute(createDirectorySQL);
+        }
+        for (int shard = 0; shard < shardDataSources.size(); shard++) {
+            try (Connection conn = getShardConnection(shard); Statement stmt = conn.createStatement()) {
+                stmt.execute(createShardUsersSQL);
+            }
+        }
+        copyPrimaryUsersToShards();
+        logger.info("Sharding de usuarios activo con {} shards", shardDataSources.size());
+    }
+
+    private static void copyPrimaryUsersToShards() throws SQLException {
+        @Language("MySQL")
+        String pendingSQL = "SELECT u.* FROM users u LEFT JOIN user_directory d ON d.id = u.id WHERE d.id IS NULL ORDER BY u.id";
+        @Language("MySQL")
+        String directorySQL = "INSERT IGNORE INTO user_directory (id, email) VALUES (?, ?)";
+        @Language("MySQL")
+        String shardSQL = "INSERT IGNORE INTO users (id, first_name, middle_name, last_name, email, password, role, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+        try (Connection conn = getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(pendingSQL)) {
+            while (rs.next()) {
+                int id = rs.getInt("id");
+                try (Connection shardConn = getShardConnection(getShardFor(id));
+                     PreparedStatement insert = shardConn.prepareStatement(shardSQL)) {
+                    insert.setInt(1, id);
+                    insert.setString(2, rs.getString("first_name"));
+                    insert.setString(3, rs.getString("middle_name"));
+                    insert.setString(4, rs.getString("last_name"));
+                    insert.setString(5, rs.getString("email"));
+                    insert.setString(6, rs.getString("password"));
+                    insert.setString(7, rs.getString("role"));
+                    insert.setTimestamp(8, rs.getTimestamp("created_at"));
+                    insert.executeUpdate();
+                }
+                // El directorio se escribe al final: si la copia falla, el próximo arranque la reintenta.
+                try (PreparedStatement insert = conn.prepareStatement(directorySQL)) {
+                    insert.setInt(1, id);
+                    insert.setString(2, rs.getString("email"));
+                    insert.executeUpdate();
+                }
+            }
+        }
+    }
+
     public static void close() {
+        for (HikariDataSource shardDataSource : shardDataSources) {
+            shardDataSource.close();
+        }
+        shardDataSources = List.of();
+        shardConnectionSources = List.of();
         if (dataSource != null && !dataSource.isClosed()) {
             dataSource.close();
         }
@@ -1,52 +1,102 @@
 package org.example.config;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.javalin.Javalin;
+import io.javalin.http.ContentType;
+import io.javalin.http.Context;
+import org.example.dtos.ErrorResponse;
 import org.example.exceptions.ApiBaseException;
 import org.example.exceptions.DataAccessException;
+import org.example.exceptions.DeadlineExceededException;
+import org.example.exceptions.ServiceUnavailableException;
+import org.example.utils.RateLimitedLogger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+
+import java.io.UncheckedIOException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ExceptionHandlerConfig {
 
     // Instancia estática del logger para esta clase
     private static final Logger logger = LoggerFactory.getLogger(ExceptionHandlerConfig.class);
 
+    // Una saturación produce un 503 por petición; basta con un aviso cada pocos segundos.
+    private static final RateLimitedLogger rateLimitedLogger = new RateLimitedLogger(logger, Duration.ofSeconds(10));
+
+    private static final ObjectMapper errorMapper = new ObjectMapper();
+
+    // Cuerpos ya codificados de los errores con mensaje fijo; el conjunto de mensajes es pequeño y constante.
+    private static final Map<String, byte[]> fixedErrorBodies = new ConcurrentHashMap<>();
+
     public static void register(Javalin app) {
         // Maneja nuestras excepciones personalizadas
         app.exception(ApiBaseException.class, (e, ctx) ->
-                ctx.status(e.getStatusCode()).json(Map.of("success", false, "message", e.getMessage()))
+                writeError(ctx, e.getStatusCode(), e.getMessage(), e.isFixedMessage())
         );
 
         // Maneja errores de validación de Javalin
         app.exception(io.javalin.http.BadRequestResponse.class, (e, ctx) ->
-                ctx.status(400).json(Map.of("success", false, "message", "Petición incorrecta: " + e.getMessage()))
+                writeError(ctx, 400, "Petición incorrecta: " + e.getMessage(), false)
         );
 
         // Maneja errores de la capa de acceso a datos
         app.exception(DataAccessException.class, (e, ctx) -> {
+            // Venció el plazo de la petición (espera de conexión o timeout de la sentencia).
+            if (e.getCause() instanceof SQLTimeoutException) {
+                rateLimitedLogger.warn("db.deadline", "Plazo de la petición agotado: {}", e.getCause().getMessage());
+                writeError(ctx, 504, DeadlineExceededException.DEADLINE_EXCEEDED.getMessage(), true);
+                return;
+            }
+            // Sin conexión disponible a tiempo (cupo de carga o pool agotado): es saturación, no un fallo.
+            if (e.getCause() instanceof SQLTransientConnectionException) {
+                rateLimitedLogger.warn("db.saturated", "Sin conexión disponible: {}", e.getCause().getMessage());
+                ctx.header("Retry-After", "1");
+                writeError(ctx, 503, ServiceUnavailableException.OVERLOADED.getMessage(), true);
+                return;
+            }
             logger.error("Error de acceso a datos: {}", e.getMessage(), e);
-            ctx.status(500).json(Map.of("success", false, "message", "Error interno del servidor al procesar la solicitud."));
+            writeError(ctx, 500, "Error interno del servidor al procesar la solicitud.", true);
         });
 
         // Maneja errores de estado inesperados en la lógica de la aplicación
         app.exception(IllegalStateException.class, (e, ctx) -> {
             logger.error("Error de estado interno: {}", e.getMessage(), e);
-            ctx.status(500).json(Map.of("success", false, "message", "Error interno del servidor: " + e.getMessage()));
+            writeError(ctx, 500, "Error interno del servidor: " + e.getMessage(), false);
         });
 
         // Manejador "catch-all" para cualquier otra excepción no controlada
         app.exception(Exception.class, (e, ctx) -> {
             logger.error("Error no controlado ({}): {}", e.getClass().getName(), e.getMessage(), e);
-            ctx.status(500).json(Map.of("success", false, "message", "Error interno del servidor."));
+            writeError(ctx, 500, "Error interno del servidor.", true);
         });
 
         // Maneja errores 404 (Not Found) para endpoints que no existen
         app.error(404, ctx -> {
             if (ctx.result() == null) {
                 logger.warn("Se intentó acceder a un endpoint no encontrado: {} {}", ctx.method(), ctx.path());
-                ctx.json(Map.of("success", false, "message", "Endpoint no encontrado: " + ctx.method() + " " + ctx.path()));
+                writeError(ctx, 404, "Endpoint no encontrado: " + ctx.method() + " " + ctx.path(), false);
             }
         });
     }
-}
\ No newline at end of file
+
+    private static void writeError(Context ctx, int status, String message, boolean fixedMessage) {
+        byte[] body = fixedMessage
+                ? fixedErrorBodies.computeIfAbsent(message, ExceptionHandlerConfig::encode)
+                : encode(message);
+        ctx.status(status).contentType(ContentType.APPLICATION_JSON).result(body);
+    }
+
+    private static byte[] encode(String message) {
+        try {
+            return errorMapper.writeValueAsBytes(ErrorResponse.of(message));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
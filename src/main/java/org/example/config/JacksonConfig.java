@@ -0,0 +1,16 @@
+package org.example.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * ObjectMapper compartido por Javalin y el resto de componentes. Al ser una única instancia,
+ * los serializadores que construye el calentamiento son los mismos que usan las peticiones.
+ */
+public class JacksonConfig {
+    private static final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    public static ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+}
@@ -0,0 +1,123 @@
+package org.example.config;
+
+import at.favre.lib.crypto.bcrypt.BCrypt;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.daos.UserDAO;
+import org.example.dtos.auth.LoginRequest;
+import org.example.dtos.user.UserDTO;
+import org.example.mappers.UserMapper;
+import org.example.models.User;
+import org.example.utils.JWTUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calentamiento previo a recibir tráfico. Primero abre todas las conexiones del pool y ejecuta en
+ * bucle las mismas operaciones que una petición (consultas del DAO, emisión y validación de tokens,
+ * mapeo y serialización con el ObjectMapper compartido). Con el puerto ya abierto, lanza peticiones
+ * locales para calentar el router, el control de acceso y el manejo de errores; mientras tanto
+ * /health responde 503. Cada fase se detiene al completar las iteraciones o al agotar el tiempo.
+ */
+public class WarmUp {
+    private static final Logger logger = LoggerFactory.getLogger(WarmUp.class);
+
+    private static final String ADMIN_EMAIL = "admin@system.com";
+    private static final String WARMUP_PASSWORD = "warm-up-password";
+    private static final int BCRYPT_ROUNDS = 3;
+    // El exp del token va en segundos: el margen cubre el redondeo hacia abajo.
+    private static final Duration TOKEN_GRACE = Duration.ofSeconds(2);
+
+    private final int iterations;
+    private final long deadline;
+    private final ObjectMapper objectMapper = JacksonConfig.getObjectMapper();
+    private final UserDAO userDAO;
+    private final UserMapper userMapper = new UserMapper();
+
+    public WarmUp(UserDAO userDAO, int iterations, long maxMillis) {
+        this.userDAO = userDAO;
+        this.iterations = iterations;
+        this.deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxMillis);
+    }
+
+    public void warmComponents() {
+        long start = System.nanoTime();
+        DatabaseConfig.prefillPool();
+        int done = 0;
+        try {
+            User admin = loadAdmin();
+            byte[] loginBody = objectMapper.writeValueAsBytes(new LoginRequest(ADMIN_EMAIL, WARMUP_PASSWORD));
+            for (; done < iterations && !expired(); done++) {
+                userDAO.findById(admin.getId());
+                userDAO.findByEmail(admin.getEmail());
+                String token = JWTUtil.generateToken(admin);
+                JWTUtil.validateAndExtractClaims(token);
+                UserDTO dto = userMapper.toUserDTO(admin);
+                objectMapper.writeValueAsBytes(Map.of("success", true, "data", dto));
+                objectMapper.readValue(loginBody, LoginRequest.class);
+            }
+            for (int i = 0; i < BCRYPT_ROUNDS && !expired(); i++) {
+                BCrypt.verifyer().verify(WARMUP_PASSWORD.toCharArray(), admin.getPassword());
+            }
+        } catch (Exception e) {
+            logger.warn("Calentamiento de componentes interrumpido: {}", e.getMessage());
+        }
+        logger.info("Calentamiento de componentes: {} iteraciones en {} ms", done, elapsedMillis(start));
+    }
+
+    public void warmHttp(int port) {
+        long start = System.nanoTime();
+        String baseUrl = "http://localhost:" + port;
+        HttpClient client = HttpClient.newHttpClient();
+        int done = 0;
+        try {
+            User admin = loadAdmin();
+            // El token caduca poco después de terminar el calentamiento: no hace falta revocarlo ni
+            // dejar filas en jwt_blacklist.
+            String bearer = "Bearer " + JWTUtil.generateToken(admin, remainingTime().plus(TOKEN_GRACE));
+            // El login no se llama por HTTP: cualquier resultado quedaría en auth_audit como un intento
+            // real. Sus componentes (búsqueda, BCrypt, emisión del token, JSON) ya se calientan en warmComponents.
+            for (; done < iterations && !expired(); done++) {
+                send(client, HttpRequest.newBuilder(URI.create(baseUrl + "/health")).GET());
+                send(client, HttpRequest.newBuilder(URI.create(baseUrl + "/api/users/" + admin.getId()))
+                        .header("Authorization", bearer).GET());
+                send(client, HttpRequest.newBuilder(URI.create(baseUrl + "/api/users/profile"))
+                        .header("Authorization", bearer).GET());
+                send(client, HttpRequest.newBuilder(URI.create(baseUrl + "/api/users"))
+                        .header("Authorization", bearer).GET());
+                send(client, HttpRequest.newBuilder(URI.create(baseUrl + "/api/users/profile")).GET());
+            }
+        } catch (Exception e) {
+            logger.warn("Calentamiento HTTP interrumpido: {}", e.getMessage());
+        }
+        logger.info("Calentamiento HTTP: {} iteraciones en {} ms", done, elapsedMillis(start));
+    }
+
+    private User loadAdmin() {
+        return userDAO.findByEmail(ADMIN_EMAIL)
+                .orElseThrow(() -> new IllegalStateException("No existe el usuario administrador para el calentamiento."));
+    }
+
+    private static void send(HttpClient client, HttpRequest.Builder request) throws Exception {
+        client.send(request.build(), HttpResponse.BodyHandlers.discarding());
+    }
+
+    private Duration remainingTime() {
+        return Duration.ofNanos(Math.max(0, deadline - System.nanoTime()));
+    }
+
+    private boolean expired() {
+        return System.nanoTime() - deadline >= 0;
+    }
+
+    private static long elapsedMillis(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+}
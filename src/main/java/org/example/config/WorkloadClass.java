@@ -0,0 +1,37 @@
+package org.example.config;
+
+/**
+ * Clase de carga de cada consulta. Cada clase tiene su propio cupo de conexiones dentro de cada pool,
+ * de modo que un recorrido lento de administración o una ráfaga de revocaciones no deja sin
+ * conexiones al login ni a la validación de tokens.
+ */
+public enum WorkloadClass {
+    /** Login y comprobación de revocación en cada petición autenticada. */
+    AUTH_CRITICAL(4, 2000),
+    /** Lecturas puntuales o por lotes de usuarios. */
+    USER_READ(3, 1000),
+    /** Listados completos y estadísticas de administración. */
+    ADMIN_BULK(1, 5000),
+    /** Altas de usuarios: no esperan detrás de un listado ni de una exportación. */
+    USER_WRITE(1, 2000),
+    /** Exportaciones en streaming, que retienen la conexión durante todo el recorrido. */
+    EXPORT(1, 5000),
+    /** Escrituras en segundo plano: tokens revocados y auditoría de autenticación. */
+    REVOCATION_WRITE(2, 5000);
+
+    private final int defaultPermits;
+    private final int defaultTimeoutMillis;
+
+    WorkloadClass(int defaultPermits, int defaultTimeoutMillis) {
+        this.defaultPermits = defaultPermits;
+        this.defaultTimeoutMillis = defaultTimeoutMillis;
+    }
+
+    public int getDefaultPermits() {
+        return defaultPermits;
+    }
+
+    public int getDefaultTimeoutMillis() {
+        return defaultTimeoutMillis;
+    }
+}
@@ -0,0 +1,52 @@
+package org.example.controllers;
+
+import io.javalin.http.Context;
+import org.example.metrics.Metrics;
+import org.example.metrics.jfr.JfrRecorder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+public class AdminController {
+
+    public void getMetrics(Context ctx) {
+        ctx.status(200).json(Map.of(
+                "success", true,
+                "data", Metrics.snapshot()
+        ));
+    }
+
+    public void getRecordingStatus(Context ctx) {
+        ctx.status(200).json(Map.of("success", true, "data", JfrRecorder.status()));
+    }
+
+    public void startRecording(Context ctx) {
+        boolean started = JfrRecorder.start();
+        ctx.status(200).json(Map.of(
+                "success", true,
+                "message", started ? "JFR recording started." : "JFR recording was already running.",
+                "data", JfrRecorder.status()
+        ));
+    }
+
+    public void stopRecording(Context ctx) {
+        boolean stopped = JfrRecorder.stop();
+        ctx.status(200).json(Map.of(
+                "success", true,
+                "message", stopped ? "JFR recording stopped." : "No JFR recording was running."
+        ));
+    }
+
+    /**
+     * Descarga lo grabado hasta ahora en formato .jfr; la grabación sigue en curso.
+     */
+    public void dumpRecording(Context ctx) throws IOException {
+        Path file = JfrRecorder.dump();
+        ctx.contentType("application/octet-stream");
+        ctx.header("Content-Disposition", "attachment; filename=\"javalin-tuto.jfr\"");
+        ctx.result(Files.newInputStream(file, StandardOpenOption.DELETE_ON_CLOSE));
+    }
+}
@@ -1,32 +1,45 @@
 package org.example.controllers;
 
 import io.javalin.http.Context;
+import org.example.dtos.auth.IntrospectRequest;
 import org.example.dtos.auth.LoginRequest;
 import org.example.dtos.auth.LoginResponse;
 import org.example.services.AuthService;
+import org.example.utils.ContentNegotiation;
 import org.example.utils.JWTUtil;
 import java.util.Map;
 
 public class AuthController {
     private final AuthService authService;
+    private final ContentNegotiation contentNegotiation;
 
-    public AuthController(AuthService authService) {
+    public AuthController(AuthService authService, ContentNegotiation contentNegotiation) {
         this.authService = authService;
+        this.contentNegotiation = contentNegotiation;
     }
 
     public void login(Context ctx) {
-        LoginRequest loginRequest = ctx.bodyAsClass(LoginRequest.class);
-        LoginResponse loginResponse = authService.login(loginRequest);
-        ctx.status(200).json(Map.of(
+        LoginRequest loginRequest = contentNegotiation.readBody(ctx, LoginRequest.class);
+        LoginResponse loginResponse = authService.login(loginRequest, ctx.ip());
+        contentNegotiation.respond(ctx.status(200), Map.of(
                 "success", true,
                 "message", "Login successful",
                 "data", loginResponse
         ));
     }
 
+    public void introspect(Context ctx) {
+        IntrospectRequest introspectRequest = contentNegotiation.readBody(ctx, IntrospectRequest.class);
+        var results = authService.introspect(introspectRequest);
+        contentNegotiation.respond(ctx.status(200), Map.of(
+                "success", true,
+                "data", results
+        ));
+    }
+
     public void logout(Context ctx) {
         String token = JWTUtil.extractTokenFromHeader(ctx.header("Authorization"));
-        authService.logout(token);
+        authService.logout(token, ctx.attribute("claims"), ctx.attribute("userId"), ctx.ip());
         ctx.status(200).json(Map.of("success", true, "message", "Logout successful"));
     }
 }
\ No newline at end of file
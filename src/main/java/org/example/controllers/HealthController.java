@@ -0,0 +1,24 @@
+package org.example.controllers;
+
+import io.javalin.http.Context;
+
+import java.util.Map;
+
+public class HealthController {
+    private static volatile boolean ready = false;
+
+    public static void setReady(boolean value) {
+        ready = value;
+    }
+
+    /**
+     * Informa si la instancia puede recibir tráfico: responde 503 mientras dura el calentamiento.
+     */
+    public void getHealth(Context ctx) {
+        if (!ready) {
+            ctx.status(503).json(Map.of("success", false, "status", "WARMING_UP"));
+            return;
+        }
+        ctx.status(200).json(Map.of("success", true, "status", "UP"));
+    }
+}
@@ -1,25 +1,64 @@
 package org.example.controllers;
 
 import io.javalin.http.Context;
-import io.javalin.http.ForbiddenResponse;
 import org.example.dtos.auth.RegisterRequest;
+import org.example.dtos.user.UserDTO;
+import org.example.exceptions.BadRequestException;
+import org.example.exceptions.ForbiddenException;
+import org.example.exceptions.ServiceUnavailableException;
+import org.example.metrics.Metrics;
 import org.example.models.Role;
 import org.example.services.UserService;
+import org.example.services.UserStatistics;
+import org.example.utils.Bulkhead;
+import org.example.utils.ContentNegotiation;
+import org.example.utils.RateLimitedLogger;
+import org.example.utils.SerializedResponseCache;
+import org.example.utils.StreamingResponse;
+import org.slf4j.LoggerFactory;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.TreeMap;
 
 public class UserController {
 
+    private static final RateLimitedLogger rateLimitedLogger =
+            new RateLimitedLogger(LoggerFactory.getLogger(UserController.class), Duration.ofSeconds(10));
+
     private final UserService userService;
+    private final SerializedResponseCache userListCache;
+    private final ContentNegotiation contentNegotiation;
+    private final UserStatistics userStatistics;
+    private final Bulkhead exportPermits;
+    private final long exportWriteTimeoutMillis;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService, SerializedResponseCache userListCache,
+                          ContentNegotiation contentNegotiation, UserStatistics userStatistics,
+                          Bulkhead exportPermits, long exportWriteTimeoutMillis) {
         this.userService = userService;
+        this.userListCache = userListCache;
+        this.contentNegotiation = contentNegotiation;
+        this.userStatistics = userStatistics;
+        this.exportPermits = exportPermits;
+        this.exportWriteTimeoutMillis = exportWriteTimeoutMillis;
+        Metrics.register("export.inFlight", exportPermits::getInUse);
+        Metrics.register("export.rejected", exportPermits::getRejectedCount);
     }
 
     public void register(Context ctx) {
-        RegisterRequest registerRequest = ctx.bodyAsClass(RegisterRequest.class);
+        RegisterRequest registerRequest = contentNegotiation.readBody(ctx, RegisterRequest.class);
         var newUser = userService.registerWaiter(registerRequest);
-        ctx.status(201).json(Map.of(
+        contentNegotiation.respond(ctx.status(201), Map.of(
                 "success", true,
                 "message", "Waiter registered successfully",
                 "data", newUser
@@ -27,24 +66,90 @@ public class UserController {
     }
 
     public void getAllUsers(Context ctx) {
-        var users = userService.findAllUsers();
-        ctx.status(200).json(Map.of(
+        ContentNegotiation.Format format = contentNegotiation.negotiate(ctx);
+        String cacheKey = format + new TreeMap<>(ctx.queryParamMap()).toString();
+        userListCache.respond(ctx.status(200), cacheKey, format.mediaType(), () -> {
+            String ids = ctx.queryParam("ids");
+            var users = ids != null ? userService.findUsersByIds(parseIds(ids)) : userService.findAllUsers();
+            Map<String, Object> body = Map.of(
+                    "success", true,
+                    "data", users
+            );
+            return contentNegotiation.encode(ctx, format, body);
+        });
+    }
+
+    public void getStats(Context ctx) {
+        contentNegotiation.respond(ctx.status(200), Map.of(
                 "success", true,
-                "data", users
+                "data", userStatistics.snapshot()
         ));
     }
 
+    /**
+     * Exporta todos los usuarios en NDJSON (por defecto) o CSV, escribiendo cada fila en cuanto
+     * llega del cursor. La respuesta va en chunks y la memoria usada no depende del tamaño de la tabla.
+     * Solo se admiten exportPermits exportaciones a la vez, y un cliente que deja de leer durante
+     * exportWriteTimeoutMillis pierde la conexión: si no, retendría el cursor y su conexión indefinidamente.
+     */
+    public void exportUsers(Context ctx) throws IOException, InterruptedException {
+        String format = ctx.queryParamAsClass("format", String.class).getOrDefault("ndjson").toLowerCase(Locale.ROOT);
+        if (!format.equals("ndjson") && !format.equals("csv")) {
+            throw new BadRequestException("Unsupported export format: " + format + ". Use 'ndjson' or 'csv'.");
+        }
+        if (!exportPermits.tryAcquire()) {
+            ctx.header("Retry-After", "5");
+            throw ServiceUnavailableException.EXPORT_BUSY;
+        }
+        try (StreamingResponse stream = StreamingResponse.withIdleTimeout(ctx, exportWriteTimeoutMillis)) {
+            writeExport(ctx, format, stream);
+        } finally {
+            exportPermits.release();
+        }
+    }
+
+    private void writeExport(Context ctx, String format, StreamingResponse stream) throws IOException {
+        boolean csv = format.equals("csv");
+        ctx.status(200)
+                .contentType(csv ? "text/csv; charset=utf-8" : "application/x-ndjson")
+                .header("Content-Disposition", "attachment; filename=users." + format);
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(ctx.outputStream(), StandardCharsets.UTF_8));
+        try {
+            if (csv) {
+                writer.write("id,firstName,middleName,lastName,email,role,createdAt\n");
+            }
+            userService.exportUsers(user -> {
+                try {
+                    writer.write(csv ? toCsvRow(user) : ctx.jsonMapper().toJsonString(user, UserDTO.class));
+                    writer.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+        } catch (IOException | RuntimeException e) {
+            if (!ctx.res().isCommitted()) {
+                throw e;
+            }
+            // Con parte del cuerpo ya enviada no cabe una respuesta de error: se corta la conexión para
+            // que el cliente vea una transferencia incompleta y no tome el fichero truncado por bueno.
+            rateLimitedLogger.warn("export.aborted", "Exportación de usuarios interrumpida: {}", e.getMessage());
+            stream.abort(e);
+        }
+    }
+
     public void getUserById(Context ctx) {
         int requestedId = Integer.parseInt(ctx.pathParam("id"));
         int requesterId = ctx.attribute("userId");
         Role requesterRole = ctx.attribute("userRole");
 
         if (requesterRole != Role.ADMIN && requesterId != requestedId) {
-            throw new ForbiddenResponse("You are not allowed to view this user's data.");
+            throw ForbiddenException.USER_DATA_DENIED;
         }
 
         var user = userService.findUserById(requestedId);
-        ctx.status(200).json(Map.of(
+        contentNegotiation.respond(ctx.status(200), Map.of(
                 "success", true,
                 "data", user
         ));
@@ -53,10 +158,46 @@ public class UserController {
     public void getProfile(Context ctx) {
         int userId = ctx.attribute("userId");
         var userProfile = userService.findUserById(userId);
-        ctx.status(200).json(Map.of(
+        contentNegotiation.respond(ctx.status(200), Map.of(
                 "success", true,
                 "message", "Profile data retrieved successfully",
                 "data", userProfile
         ));
     }
+
+    private static String toCsvRow(UserDTO user) {
+        return String.join(",",
+                String.valueOf(user.id()),
+                csvField(user.firstName()),
+                csvField(user.middleName()),
+                csvField(user.lastName()),
+                csvField(user.email()),
+                user.role() != null ? user.role().name() : "",
+                user.createdAt() != null ? user.createdAt().toString() : "");
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+
+    private List<Integer> parseIds(String ids) {
+        List<Integer> parsed = new ArrayList<>();
+        for (String id : ids.split(",")) {
+            if (id.isBlank()) {
+                continue;
+            }
+            try {
+                parsed.add(Integer.parseInt(id.trim()));
+            } catch (NumberFormatException e) {
+                throw new BadRequestException("Invalid user ID in 'ids': " + id.trim());
+            }
+        }
+        return parsed;
+    }
 }
\ No newline at end of file
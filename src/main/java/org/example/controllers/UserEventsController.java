@@ -0,0 +1,155 @@
+package org.example.controllers;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.javalin.http.sse.SseClient;
+import org.example.dtos.user.UserDTO;
+import org.example.metrics.Metrics;
+import org.example.services.UserChangeListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Emite por Server-Sent Events los usuarios que se registran. Cada cliente tiene un buffer acotado
+ * que se vacía en un hilo propio; si un cliente no consume a tiempo y su buffer se llena, se le
+ * desconecta para que no retenga memoria ni frene al resto. Los últimos eventos se guardan en
+ * un registro corto para que un cliente que se reconecta con Last-Event-ID no pierda ninguno.
+ */
+public class UserEventsController implements UserChangeListener {
+    private static final Logger logger = LoggerFactory.getLogger(UserEventsController.class);
+
+    private static final String EVENT_NAME = "user.created";
+    private static final int REPLAY_LOG_SIZE = 256;
+    private static final int CLIENT_BUFFER_SIZE = 64;
+
+    private record UserEvent(long id, String json) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final Deque<UserEvent> replayLog = new ArrayDeque<>();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final LongAdder slowConsumerDisconnects = new LongAdder();
+    private final ExecutorService senders = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "sse-user-events");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Los ids parten de la hora de arranque en microsegundos: tras un reinicio siguen creciendo, y un
+    // cliente que se reconecta con un Last-Event-ID anterior recibe los eventos nuevos en lugar de perderlos.
+    private long lastEventId;
+
+    public UserEventsController(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.lastEventId = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+        Metrics.register("sse.userEvents.subscribers", subscribers::size);
+        Metrics.register("sse.userEvents.slowConsumerDisconnects", slowConsumerDisconnects::sum);
+    }
+
+    public void stream(SseClient client) {
+        client.keepAlive();
+        Subscriber subscriber = new Subscriber(client);
+        client.onClose(() -> subscribers.remove(subscriber));
+
+        Long resumeAfter = parseLastEventId(client.ctx().header("Last-Event-ID"));
+        // Reenvío y alta bajo el mismo cerrojo que la publicación: ningún evento se pierde ni se duplica.
+        synchronized (replayLog) {
+            if (resumeAfter != null) {
+                for (UserEvent event : replayLog) {
+                    if (event.id() > resumeAfter) {
+                        subscriber.enqueue(event);
+                    }
+                }
+            }
+            subscribers.add(subscriber);
+        }
+    }
+
+    @Override
+    public void onUserCreated(UserDTO user) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(user);
+        } catch (JsonProcessingException e) {
+            logger.error("No se pudo serializar el evento de usuario {}: {}", user.id(), e.getMessage());
+            return;
+        }
+        synchronized (replayLog) {
+            UserEvent event = new UserEvent(++lastEventId, json);
+            replayLog.addLast(event);
+            if (replayLog.size() > REPLAY_LOG_SIZE) {
+                replayLog.removeFirst();
+            }
+            subscribers.forEach(subscriber -> subscriber.enqueue(event));
+        }
+    }
+
+    private static Long parseLastEventId(String header) {
+        if (header == null || header.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private class Subscriber {
+        private final SseClient client;
+        private final BlockingQueue<UserEvent> buffer = new ArrayBlockingQueue<>(CLIENT_BUFFER_SIZE);
+        private final AtomicBoolean sending = new AtomicBoolean(false);
+
+        Subscriber(SseClient client) {
+            this.client = client;
+        }
+
+        void enqueue(UserEvent event) {
+            if (!buffer.offer(event)) {
+                slowConsumerDisconnects.increment();
+                subscribers.remove(this);
+                client.close();
+                return;
+            }
+            scheduleSend();
+        }
+
+        private void scheduleSend() {
+            if (sending.compareAndSet(false, true)) {
+                senders.execute(this::send);
+            }
+        }
+
+        private void send() {
+            try {
+                UserEvent event;
+                while ((event = buffer.poll()) != null) {
+                    if (client.terminated()) {
+                        subscribers.remove(this);
+                        return;
+                    }
+                    client.sendEvent(EVENT_NAME, event.json(), String.valueOf(event.id()));
+                }
+            } catch (RuntimeException e) {
+                subscribers.remove(this);
+                client.close();
+            } finally {
+                sending.set(false);
+                if (!buffer.isEmpty() && !client.terminated()) {
+                    scheduleSend();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package org.example.daos;
+
+import org.example.config.DatabaseConfig;
+import org.example.config.WorkloadClass;
+import org.example.exceptions.DataAccessException;
+import org.example.models.AuthAuditEvent;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Collections;
+import java.util.List;
+
+public class AuthAuditDAO {
+
+    private static final int MAX_ROWS_PER_INSERT = 500;
+
+    /**
+     * Inserta todos los eventos en una sola transacción, con INSERTs de varias filas.
+     */
+    public void saveAll(List<AuthAuditEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        try (Connection conn = DatabaseConfig.getConnection(WorkloadClass.REVOCATION_WRITE)) {
+            conn.setAutoCommit(false);
+            try {
+                for (int from = 0; from < events.size(); from += MAX_ROWS_PER_INSERT) {
+                    insertRows(conn, events.subList(from, Math.min(from + MAX_ROWS_PER_INSERT, events.size())));
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error saving " + events.size() + " authentication audit events", e);
+        }
+    }
+
+    private void insertRows(Connection conn, List<AuthAuditEvent> rows) throws SQLException {
+        String sql = "INSERT INTO auth_audit (event_type, user_id, email, ip, occurred_at) VALUES "
+                + String.join(", ", Collections.nCopies(rows.size(), "(?, ?, ?, ?, ?)"));
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int index = 1;
+            for (AuthAuditEvent row : rows) {
+                pstmt.setString(index++, row.type().name());
+                if (row.userId() != null) {
+                    pstmt.setInt(index++, row.userId());
+                } else {
+                    pstmt.setNull(index++, Types.INTEGER);
+                }
+                pstmt.setString(index++, row.email());
+                pstmt.setString(index++, row.ip());
+                pstmt.setTimestamp(index++, row.occurredAt());
+            }
+            pstmt.executeUpdate();
+        }
+    }
+}
@@ -1,17 +1,38 @@
 package org.example.daos;
 
 import org.example.config.DatabaseConfig;
+import org.example.config.WorkloadClass;
 import org.example.exceptions.DataAccessException;
+import org.example.metrics.jfr.BlacklistQueryEvent;
+import org.example.models.RevokedToken;
+import org.example.utils.RequestContext;
 import org.intellij.lang.annotations.Language;
 
 import java.sql.*;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
 
 public class BlacklistDAO {
 
+    private static final int MAX_ROWS_PER_INSERT = 500;
+
+    private static final LongAdder lookups = new LongAdder();
+
+    /**
+     * Número de consultas de revocación ejecutadas contra la base de datos desde el arranque.
+     */
+    public static long getLookupCount() {
+        return lookups.sum();
+    }
+
     public void save(String token, Timestamp expiryDate) {
         @Language("MySQL")
         String sql = "INSERT INTO jwt_blacklist (token, expiry_date) VALUES (?, ?)";
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getConnection(WorkloadClass.REVOCATION_WRITE);
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, token);
             pstmt.setTimestamp(2, expiryDate);
@@ -21,17 +42,109 @@ public class BlacklistDAO {
         }
     }
 
+    /**
+     * Inserta todos los tokens en una sola transacción, con INSERTs de varias filas.
+     */
+    public void saveAll(List<RevokedToken> tokens) {
+        if (tokens.isEmpty()) {
+            return;
+        }
+        try (Connection conn = DatabaseConfig.getConnection(WorkloadClass.REVOCATION_WRITE)) {
+            conn.setAutoCommit(false);
+            try {
+                for (int from = 0; from < tokens.size(); from += MAX_ROWS_PER_INSERT) {
+                    insertRows(conn, tokens.subList(from, Math.min(from + MAX_ROWS_PER_INSERT, tokens.size())));
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error saving " + tokens.size() + " tokens to blacklist", e);
+        }
+    }
+
+    private void insertRows(Connection conn, List<RevokedToken> rows) throws SQLException {
+        String sql = "INSERT INTO jwt_blacklist (token, expiry_date) VALUES "
+                + String.join(", ", Collections.nCopies(rows.size(), "(?, ?)"));
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int index = 1;
+            for (RevokedToken row : rows) {
+                pstmt.setString(index++, row.token());
+                pstmt.setTimestamp(index++, row.expiryDate());
+            }
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Devuelve cuáles de los tokens están en la blacklist, con una sola consulta.
+     */
+    public Set<String> findRevoked(Collection<String> tokens) {
+        Set<String> revoked = new HashSet<>();
+        if (tokens.isEmpty()) {
+            return revoked;
+        }
+        lookups.increment();
+        BlacklistQueryEvent event = new BlacklistQueryEvent();
+        event.begin();
+        boolean failed = true;
+        String sql = "SELECT token FROM jwt_blacklist WHERE token IN ("
+                + String.join(", ", Collections.nCopies(tokens.size(), "?")) + ")";
+        try (Connection conn = DatabaseConfig.getConnection(WorkloadClass.AUTH_CRITICAL);
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int index = 1;
+            for (String token : tokens) {
+                pstmt.setString(index++, token);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    revoked.add(rs.getString(1));
+                }
+            }
+            failed = false;
+        } catch (SQLException e) {
+            throw new DataAccessException("Error checking tokens in blacklist", e);
+        } finally {
+            commitEvent(event, tokens.size(), revoked.size(), failed);
+        }
+        return revoked;
+    }
+
     public boolean exists(String token) {
+        lookups.increment();
+        BlacklistQueryEvent event = new BlacklistQueryEvent();
+        event.begin();
         @Language("MySQL")
         String sql = "SELECT COUNT(*) FROM jwt_blacklist WHERE token = ?";
-        try (Connection conn = DatabaseConfig.getConnection();
+        boolean revoked = false;
+        boolean failed = true;
+        try (Connection conn = DatabaseConfig.getConnection(WorkloadClass.AUTH_CRITICAL);
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, token);
             try (ResultSet rs = pstmt.executeQuery()) {
-                return rs.next() && rs.getInt(1) > 0;
+                revoked = rs.next() && rs.getInt(1) > 0;
             }
+            failed = false;
         } catch (SQLException e) {
             throw new DataAccessException("Error checking token in blacklist", e);
+        } finally {
+            commitEvent(event, 1, revoked ? 1 : 0, failed);
+        }
+        return revoked;
+    }
+
+    private static void commitEvent(BlacklistQueryEvent event, int tokens, int revoked, boolean failed) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.requestId = RequestContext.getRequestId();
+            event.tokens = tokens;
+            event.revoked = revoked;
+            event.failed = failed;
+            event.commit();
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,345 @@
+package org.example.daos;
+
+import org.example.config.AppConfig;
+import org.example.config.DatabaseConfig;
+import org.example.config.WorkloadClass;
+import org.example.exceptions.DataAccessException;
+import org.example.models.Role;
+import org.example.models.User;
+import org.example.utils.RequestContext;
+import org.intellij.lang.annotations.Language;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * UserDAO repartido entre varios shards. El id se asigna en user_directory (base principal) y decide
+ * el shard mediante el anillo de hash de DatabaseConfig; el directorio también resuelve email → id,
+ * así que buscar por email consulta un único shard. Las lecturas que abarcan varios shards se lanzan
+ * en paralelo y se combinan ordenadas por id.
+ */
+public class ShardedUserDAO extends UserDAO {
+
+    private interface ShardQuery<T> {
+        T run(Connection conn) throws SQLException;
+    }
+
+    private final ExecutorService scatterExecutor;
+
+    public ShardedUserDAO() {
+        // Un hilo por conexión de los pools de shard: con uno por shard, dos lecturas repartidas
+        // simultáneas se harían cola aunque los pools tuvieran conexiones libres.
+        int threads = DatabaseConfig.getShardCount() * AppConfig.getDbShardPoolSize();
+        this.scatterExecutor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "user-shard-query");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        if (email == null || email.trim().isEmpty()) {
+            return Optional.empty();
+        }
+        @Language("MySQL")
+        String sql = "SELECT id FROM user_directory WHERE email = ?";
+        Integer id = null;
+        try (Connection conn = DatabaseConfig.getConnection(WorkloadClass.AUTH_CRITICAL);
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, email.trim());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    id = rs.getInt(1);
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error finding user by email: " + email, e);
+        }
+        return id != null ? findOnShard(id, WorkloadClass.AUTH_CRITICAL) : Optional.empty();
+    }
+
+    @Override
+    public Optional<User> findById(int id) {
+        return findOnShard(id, WorkloadClass.USER_READ);
+    }
+
+    private Optional<User> findOnShard(int id, WorkloadClass workloadClass) {
+        @Language("MySQL")
+        String sql = "SELECT * FROM users WHERE id = ?";
+        try (Connection conn = DatabaseConfig.getShardConnection(DatabaseConfig.getShardFor(id), workloadClass);
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, id);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.of(mapRowToUser(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error finding user by id: " + id, e);
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public List<User> findAll() {
+        @Language("MySQL")
+        String sql = "SELECT * FROM users";
+        Map<Integer, ShardQuery<List<User>>> queries = new HashMap<>();
+        for (int shard = 0; shard < DatabaseConfig.getShardCount(); shard++) {
+            queries.put(shard, conn -> {
+                try (Statement stmt = conn.createStatement();
+                     ResultSet rs = stmt.executeQuery(sql)) {
+                    return mapRows(rs);
+                }
+            });
+        }
+        return scatterGather(queries, WorkloadClass.ADMIN_BULK, "Error finding all users");
+    }
+
+    @Override
+    public List<User> findAllByIds(Collection<Integer> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Integer, List<Integer>> idsByShard = new HashMap<>();
+        for (Integer id : ids) {
+            idsByShard.computeIfAbsent(DatabaseConfig.getShardFor(id), shard -> new ArrayList<>()).add(id);
+        }
+        Map<Integer, ShardQuery<List<User>>> queries = new HashMap<>();
+        idsByShard.forEach((shard, shardIds) -> queries.put(shard, conn -> {
+            String sql = "SELECT * FROM users WHERE id IN (" + placeholders(shardIds.size()) + ")";
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                int index = 1;
+                for (Integer id : shardIds) {
+                    pstmt.setInt(index++, id);
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    return mapRows(rs);
+                }
+            }
+        }));
+        return scatterGather(queries, WorkloadClass.USER_READ, "Error finding users by ids: " + ids);
+    }
+
+    @Override
+    public List<User> findAllByEmails(Collection<String> emails) {
+        if (emails == null || emails.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String sql = "SELECT id FROM user_directory WHERE email IN (" + placeholders(emails.size()) + ")";
+        List<Integer> ids = new ArrayList<>();
+        try (Connection conn = DatabaseConfig.getConnection(WorkloadClass.AUTH_CRITICAL);
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int index = 1;
+            for (String email : emails) {
+                pstmt.setString(index++, email.trim());
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getInt(1));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error finding users by emails", e);
+        }
+        return findAllByIds(ids);
+    }
+
+    /**
+     * Mezcla k-way de los cursores de todos los shards, cada uno en streaming y ordenado por id:
+     * el recorrido sigue siendo global por id y sin cargar los usuarios en memoria.
+     */
+    @Override
+    public void forEach(Consumer<User> consumer) {
+        @Language("MySQL")
+        String sql = "SELECT * FROM users ORDER BY id";
+        record Cursor(ResultSet rs, User current) {
+        }
+        List<Connection> connections = new ArrayList<>();
+        try {
+            PriorityQueue<Cursor> cursors = new PriorityQueue<>(Comparator.comparingInt(cursor -> cursor.current().getId()));
+            for (int shard = 0; shard < DatabaseConfig.getShardCount(); shard++) {
+                Connection conn = DatabaseConfig.getShardConnection(shard, WorkloadClass.EXPORT);
+                connections.add(conn);
+                PreparedStatement pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                pstmt.setFetchSize(Integer.MIN_VALUE);
+                ResultSet rs = pstmt.executeQuery();
+                if (rs.next()) {
+                    cursors.add(new Cursor(rs, mapRowToUser(rs)));
+                }
+            }
+            while (!cursors.isEmpty()) {
+                Cursor cursor = cursors.poll();
+                consumer.accept(cursor.current());
+                if (cursor.rs().next()) {
+                    cursors.add(new Cursor(cursor.rs(), mapRowToUser(cursor.rs())));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error streaming users", e);
+        } finally {
+            for (Connection conn : connections) {
+                try {
+                    conn.close();
+                } catch (SQLException ignored) {
+                }
+            }
+        }
+    }
+
+    @Override
+    public Map<Role, Long> countByRole() {
+        @Language("MySQL")
+        String sql = "SELECT role, COUNT(*) FROM users GROUP BY role";
+        Map<Role, Long> counts = new EnumMap<>(Role.class);
+        for (int shard = 0; shard < DatabaseConfig.getShardCount(); shard++) {
+            try (Connection conn = DatabaseConfig.getShardConnection(shard, WorkloadClass.ADMIN_BULK);
+                 Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(sql)) {
+                while (rs.next()) {
+                    counts.merge(Role.valueOf(rs.getString(1)), rs.getLong(2), Long::sum);
+                }
+            } catch (SQLException e) {
+                throw new DataAccessException("Error counting users by role", e);
+            }
+        }
+        return counts;
+    }
+
+    @Override
+    public Map<Long, Long> countRegistrationsByHourSince(Timestamp since) {
+        @Language("MySQL")
+        String sql = "SELECT FLOOR(UNIX_TIMESTAMP(created_at) / 3600) AS epoch_hour, COUNT(*) FROM users WHERE created_at >= ? GROUP BY epoch_hour";
+        Map<Long, Long> counts = new HashMap<>();
+        for (int shard = 0; shard < DatabaseConfig.getShardCount(); shard++) {
+            try (Connection conn = DatabaseConfig.getShardConnection(shard, WorkloadClass.ADMIN_BULK);
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setTimestamp(1, since);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        counts.merge(rs.getLong(1), rs.getLong(2), Long::sum);
+                    }
+                }
+            } catch (SQLException e) {
+                throw new DataAccessException("Error counting recent registrations", e);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Reserva el id y el email en el directorio y después inserta la fila en su shard.
+     * Si la inserción en el shard falla, se borra la reserva para no dejar el email ocupado.
+     */
+    @Override
+    public User save(User user) {
+        @Language("MySQL")
+        String directorySql = "INSERT INTO user_directory (email) VALUES (?)";
+        @Language("MySQL")
+        String shardSql = "INSERT INTO users (id, first_name, middle_name, last_name, email, password, role) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+        int id;
+        try (Connection conn = DatabaseConfig.getConnection(WorkloadClass.USER_WRITE);
+             PreparedStatement pstmt = conn.prepareStatement(directorySql, Statement.RETURN_GENERATED_KEYS)) {
+            pstmt.setString(1, user.getEmail());
+            pstmt.executeUpdate();
+            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                if (!generatedKeys.next()) {
+                    throw new SQLException("Creating user failed, no ID obtained.");
+                }
+                id = generatedKeys.getInt(1);
+            }
+        } catch (SQLException e) {
+            throw saveError(user, e);
+        }
+
+        try (Connection conn = DatabaseConfig.getShardConnection(DatabaseConfig.getShardFor(id), WorkloadClass.USER_WRITE);
+             PreparedStatement pstmt = conn.prepareStatement(shardSql)) {
+            pstmt.setInt(1, id);
+            pstmt.setString(2, user.getFirstName());
+            pstmt.setString(3, user.getMiddleName());
+            pstmt.setString(4, user.getLastName());
+            pstmt.setString(5, user.getEmail());
+            pstmt.setString(6, user.getPassword());
+            pstmt.setString(7, user.getRole().name());
+            pstmt.executeUpdate();
+        } catch (SQLException e) {
+            releaseDirectoryEntry(id);
+            throw saveError(user, e);
+        }
+        user.setId(id);
+        return user;
+    }
+
+    private void releaseDirectoryEntry(int id) {
+        @Language("MySQL")
+        String sql = "DELETE FROM user_directory WHERE id = ?";
+        try (Connection conn = DatabaseConfig.getConnection(WorkloadClass.USER_WRITE);
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, id);
+            pstmt.executeUpdate();
+        } catch (SQLException ignored) {
+            // La reserva huérfana solo bloquea ese email; el error original es el que se propaga.
+        }
+    }
+
+    private List<User> mapRows(ResultSet rs) throws SQLException {
+        List<User> users = new ArrayList<>();
+        while (rs.next()) {
+            users.add(mapRowToUser(rs));
+        }
+        return users;
+    }
+
+    private List<User> scatterGather(Map<Integer, ShardQuery<List<User>>> queries, WorkloadClass workloadClass, String errorMessage) {
+        // Las consultas de cada shard heredan el plazo de la petición, que se pierde al cambiar de hilo.
+        Long deadline = RequestContext.getDeadline();
+        List<Future<List<User>>> futures = new ArrayList<>();
+        queries.forEach((shard, query) -> futures.add(scatterExecutor.submit((Callable<List<User>>) () -> {
+            RequestContext.setDeadline(deadline);
+            try (Connection conn = DatabaseConfig.getShardConnection(shard, workloadClass)) {
+                return query.run(conn);
+            } finally {
+                RequestContext.setDeadline(null);
+            }
+        })));
+
+        List<User> users = new ArrayList<>();
+        try {
+            for (Future<List<User>> future : futures) {
+                users.addAll(deadline == null
+                        ? future.get()
+                        : future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            }
+        } catch (TimeoutException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw new DataAccessException(errorMessage, new SQLTimeoutException("Request deadline exceeded waiting for shards"));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(future -> future.cancel(true));
+            throw new DataAccessException(errorMessage, e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw new DataAccessException(errorMessage, e.getCause());
+        }
+        users.sort(Comparator.comparingInt(User::getId));
+        return users;
+    }
+}
@@ -1,17 +1,26 @@
 package org.example.daos;
 
 import org.example.config.DatabaseConfig;
+import org.example.config.WorkloadClass;
 import org.example.exceptions.DataAccessException;
+import org.example.exceptions.DuplicateKeyException;
 import org.example.models.Role;
 import org.example.models.User;
 import org.intellij.lang.annotations.Language;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public class UserDAO {
+    private static final int MYSQL_DUPLICATE_ENTRY = 1062;
 
     public Optional<User> findByEmail(String email) {
         if (email == null || email.trim().isEmpty()) {
@@ -20,7 +29,7 @@ public class UserDAO {
         @Language("MySQL")
         String sql = "SELECT * FROM users WHERE email = ?";
 
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getConnection(WorkloadClass.AUTH_CRITICAL);
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setString(1, email.trim());
@@ -39,7 +48,7 @@ public class UserDAO {
     public Optional<User> findById(int id) {
         @Language("MySQL")
         String sql = "SELECT * FROM users WHERE id = ?";
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getConnection(WorkloadClass.USER_READ);
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, id);
             try (ResultSet rs = pstmt.executeQuery()) {
@@ -57,7 +66,7 @@ public class UserDAO {
         List<User> users = new ArrayList<>();
         @Language("MySQL")
         String sql = "SELECT * FROM users";
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getConnection(WorkloadClass.ADMIN_BULK);
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             while (rs.next()) {
@@ -69,10 +78,116 @@ public class UserDAO {
         return users;
     }
 
+    /**
+     * Recorre todos los usuarios con un cursor de solo avance, sin cargarlos en memoria.
+     * Con Connector/J, un fetch size de Integer.MIN_VALUE hace que las filas lleguen en streaming.
+     */
+    public void forEach(Consumer<User> consumer) {
+        @Language("MySQL")
+        String sql = "SELECT * FROM users ORDER BY id";
+        try (Connection conn = DatabaseConfig.getConnection(WorkloadClass.EXPORT);
+             PreparedStatement pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            pstmt.setFetchSize(Integer.MIN_VALUE);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    consumer.accept(mapRowToUser(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error streaming users", e);
+        }
+    }
+
+    public List<User> findAllByIds(Collection<Integer> ids) {
+        List<User> users = new ArrayList<>();
+        if (ids == null || ids.isEmpty()) {
+            return users;
+        }
+        String sql = "SELECT * FROM users WHERE id IN (" + placeholders(ids.size()) + ")";
+        try (Connection conn = DatabaseConfig.getConnection(WorkloadClass.USER_READ);
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int index = 1;
+            for (Integer id : ids) {
+                pstmt.setInt(index++, id);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    users.add(mapRowToUser(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error finding users by ids: " + ids, e);
+        }
+        return users;
+    }
+
+    public List<User> findAllByEmails(Collection<String> emails) {
+        List<User> users = new ArrayList<>();
+        if (emails == null || emails.isEmpty()) {
+            return users;
+        }
+        String sql = "SELECT * FROM users WHERE email IN (" + placeholders(emails.size()) + ")";
+        try (Connection conn = DatabaseConfig.getConnection(WorkloadClass.AUTH_CRITICAL);
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int index = 1;
+            for (String email : emails) {
+                pstmt.setString(index++, email.trim());
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    users.add(mapRowToUser(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error finding users by emails", e);
+        }
+        return users;
+    }
+
+    /**
+     * Número de usuarios por rol, con una sola consulta agregada.
+     */
+    public Map<Role, Long> countByRole() {
+        @Language("MySQL")
+        String sql = "SELECT role, COUNT(*) FROM users GROUP BY role";
+        Map<Role, Long> counts = new EnumMap<>(Role.class);
+        try (Connection conn = DatabaseConfig.getConnection(WorkloadClass.ADMIN_BULK);
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                counts.merge(Role.valueOf(rs.getString(1)), rs.getLong(2), Long::sum);
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error counting users by role", e);
+        }
+        return counts;
+    }
+
+    /**
+     * Altas por hora desde el instante indicado. La clave es la hora en epoch (segundos / 3600).
+     */
+    public Map<Long, Long> countRegistrationsByHourSince(Timestamp since) {
+        @Language("MySQL")
+        String sql = "SELECT FLOOR(UNIX_TIMESTAMP(created_at) / 3600) AS epoch_hour, COUNT(*) FROM users WHERE created_at >= ? GROUP BY epoch_hour";
+        Map<Long, Long> counts = new HashMap<>();
+        try (Connection conn = DatabaseConfig.getConnection(WorkloadClass.ADMIN_BULK);
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setTimestamp(1, since);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    counts.merge(rs.getLong(1), rs.getLong(2), Long::sum);
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error counting recent registrations", e);
+        }
+        return counts;
+    }
+
     public User save(User user) {
         @Language("MySQL")
         String sql = "INSERT INTO users (first_name, middle_name, last_name, email, password, role) VALUES (?, ?, ?, ?, ?, ?)";
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (Connection conn = DatabaseConfig.getConnection(WorkloadClass.USER_WRITE);
              PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
             pstmt.setString(1, user.getFirstName());
@@ -96,11 +211,26 @@ public class UserDAO {
             }
             return user;
         } catch (SQLException e) {
-            throw new DataAccessException("Error saving user: " + user.getEmail(), e);
+            throw saveError(user, e);
+        }
+    }
+
+    /**
+     * Un email repetido llega como violación del índice UNIQUE; se distingue para que el servicio
+     * pueda responder 400 en lugar de 500.
+     */
+    protected static DataAccessException saveError(User user, SQLException e) {
+        if (e.getErrorCode() == MYSQL_DUPLICATE_ENTRY) {
+            return new DuplicateKeyException("Duplicate user email: " + user.getEmail(), e);
         }
+        return new DataAccessException("Error saving user: " + user.getEmail(), e);
+    }
+
+    protected static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
     }
 
-    private User mapRowToUser(ResultSet rs) throws SQLException {
+    protected User mapRowToUser(ResultSet rs) throws SQLException {
         User user = new User();
         user.setId(rs.getInt("id"));
         user.setFirstName(rs.getString("first_name"));
@@ -0,0 +1,7 @@
+package org.example.dtos;
+
+public record ErrorResponse(boolean success, String message) {
+    public static ErrorResponse of(String message) {
+        return new ErrorResponse(false, message);
+    }
+}
@@ -0,0 +1,6 @@
+package org.example.dtos.auth;
+
+import java.util.List;
+
+public record IntrospectRequest(List<String> tokens) {
+}
@@ -0,0 +1,18 @@
+package org.example.dtos.auth;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Resultado de introspección de un token. Los tokens inactivos solo devuelven "active": false.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TokenIntrospection(
+        boolean active,
+        String sub,
+        String email,
+        String role,
+        Long iat,
+        Long exp
+) {
+    public static final TokenIntrospection INACTIVE = new TokenIntrospection(false, null, null, null, null, null);
+}
@@ -0,0 +1,21 @@
+package org.example.dtos.user;
+
+import org.example.models.Role;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @param registrationsByHour altas de cada una de las últimas 24 horas, de la más antigua a la actual.
+ * @param registrationsByDay  altas de cada uno de los últimos 7 periodos de 24 horas, del más antiguo al actual.
+ */
+public record UserStatsDTO(
+        long total,
+        Map<Role, Long> byRole,
+        long registeredLastHour,
+        long registeredLast24Hours,
+        long registeredLast7Days,
+        List<Long> registrationsByHour,
+        List<Long> registrationsByDay
+) {
+}
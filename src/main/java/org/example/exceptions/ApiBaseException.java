@@ -1,14 +1,31 @@
 package org.example.exceptions;
 
+/**
+ * Errores esperados del cliente. No capturan stack trace: se lanzan en rutas normales de la petición
+ * (tokens inválidos, validaciones) y la traza no aporta nada para diagnosticarlos.
+ */
 public abstract class ApiBaseException extends RuntimeException {
     private final int statusCode;
+    private final boolean fixedMessage;
 
     public ApiBaseException(int statusCode, String message) {
-        super(message);
+        this(statusCode, message, false);
+    }
+
+    /**
+     * @param fixedMessage true si el mensaje es constante, lo que permite reutilizar su cuerpo JSON ya codificado.
+     */
+    protected ApiBaseException(int statusCode, String message, boolean fixedMessage) {
+        super(message, null, false, false);
         this.statusCode = statusCode;
+        this.fixedMessage = fixedMessage;
     }
 
     public int getStatusCode() {
         return statusCode;
     }
-}
\ No newline at end of file
+
+    public boolean isFixedMessage() {
+        return fixedMessage;
+    }
+}
@@ -1,7 +1,18 @@
 package org.example.exceptions;
 
 public class BadRequestException extends ApiBaseException {
+    public static final BadRequestException CREDENTIALS_REQUIRED =
+            new BadRequestException("Email and password are required.", true);
+    public static final BadRequestException REGISTRATION_FIELDS_REQUIRED =
+            new BadRequestException("First name, last name, email, and password are required.", true);
+    public static final BadRequestException PASSWORDS_DO_NOT_MATCH =
+            new BadRequestException("Passwords do not match.", true);
+
     public BadRequestException(String message) {
         super(400, message);
     }
-}
\ No newline at end of file
+
+    private BadRequestException(String message, boolean fixedMessage) {
+        super(400, message, fixedMessage);
+    }
+}
@@ -0,0 +1,14 @@
+package org.example.exceptions;
+
+public class DeadlineExceededException extends ApiBaseException {
+    public static final DeadlineExceededException DEADLINE_EXCEEDED =
+            new DeadlineExceededException("The request could not be completed within its deadline.", true);
+
+    public DeadlineExceededException(String message) {
+        super(504, message);
+    }
+
+    private DeadlineExceededException(String message, boolean fixedMessage) {
+        super(504, message, fixedMessage);
+    }
+}
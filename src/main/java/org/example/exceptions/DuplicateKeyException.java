@@ -0,0 +1,10 @@
+package org.example.exceptions;
+
+/**
+ * La escritura violó un índice UNIQUE (error 1062 de MySQL).
+ */
+public class DuplicateKeyException extends DataAccessException {
+    public DuplicateKeyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,18 @@
+package org.example.exceptions;
+
+public class ForbiddenException extends ApiBaseException {
+    public static final ForbiddenException ADMIN_REQUIRED =
+            new ForbiddenException("Access Denied: Administrator role required.", true);
+    public static final ForbiddenException ROLE_NOT_ALLOWED =
+            new ForbiddenException("Access Denied: your role is not allowed to access this resource.", true);
+    public static final ForbiddenException USER_DATA_DENIED =
+            new ForbiddenException("You are not allowed to view this user's data.", true);
+
+    public ForbiddenException(String message) {
+        super(403, message);
+    }
+
+    private ForbiddenException(String message, boolean fixedMessage) {
+        super(403, message, fixedMessage);
+    }
+}
@@ -0,0 +1,16 @@
+package org.example.exceptions;
+
+public class ServiceUnavailableException extends ApiBaseException {
+    public static final ServiceUnavailableException OVERLOADED =
+            new ServiceUnavailableException("The server is overloaded. Please retry shortly.", true);
+    public static final ServiceUnavailableException EXPORT_BUSY =
+            new ServiceUnavailableException("Too many exports are running. Please retry later.", true);
+
+    public ServiceUnavailableException(String message) {
+        super(503, message);
+    }
+
+    private ServiceUnavailableException(String message, boolean fixedMessage) {
+        super(503, message, fixedMessage);
+    }
+}
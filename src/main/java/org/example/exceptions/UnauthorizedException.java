@@ -1,7 +1,20 @@
 package org.example.exceptions;
 
 public class UnauthorizedException extends ApiBaseException {
+    public static final UnauthorizedException TOKEN_REQUIRED =
+            new UnauthorizedException("Authorization token required. Format must be 'Bearer <token>'.", true);
+    public static final UnauthorizedException INVALID_TOKEN =
+            new UnauthorizedException("The provided token is invalid or has expired.", true);
+    public static final UnauthorizedException MISSING_USER_DETAILS =
+            new UnauthorizedException("Invalid token: could not extract user details.", true);
+    public static final UnauthorizedException INVALID_CREDENTIALS =
+            new UnauthorizedException("Invalid credentials.", true);
+
     public UnauthorizedException(String message) {
         super(401, message);
     }
-}
\ No newline at end of file
+
+    private UnauthorizedException(String message, boolean fixedMessage) {
+        super(401, message, fixedMessage);
+    }
+}
@@ -0,0 +1,202 @@
+package org.example.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Envoltorios de conexiones, sentencias y result sets que miden cada sentencia SQL. Las métricas
+ * se agrupan por huella de la sentencia (el SQL normalizado, sin literales y con las listas de
+ * parámetros colapsadas) y las sentencias que superan el umbral se registran en el log de
+ * consultas lentas con los parámetros redactados.
+ * Solo se usa cuando DB_INSTRUMENTATION está activo; si no, DatabaseConfig entrega las conexiones del pool tal cual.
+ */
+public class JdbcInstrumentation {
+    private static final Logger slowQueryLogger = LoggerFactory.getLogger("org.example.sql.slow");
+
+    private static final int MAX_FINGERPRINTS = 500;
+    private static final String OVERFLOW_FINGERPRINT = "<otras sentencias>";
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^'\\\\]|\\\\.)*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+\\b");
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern ROW_LIST = Pattern.compile("\\(\\?\\.\\.\\.\\)(?:\\s*,\\s*\\(\\?\\.\\.\\.\\))+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final LatencyHistogram poolAcquire = new LatencyHistogram();
+    private static final Map<String, StatementStats> statementStats = new ConcurrentHashMap<>();
+    private static final Map<String, String> fingerprints = new ConcurrentHashMap<>();
+
+    private static volatile long slowQueryThresholdNanos = TimeUnit.MILLISECONDS.toNanos(200);
+
+    static {
+        Metrics.register("db.pool.acquire", poolAcquire::snapshot);
+        Metrics.register("db.statements", JdbcInstrumentation::statementSnapshot);
+    }
+
+    public static void setSlowQueryThresholdMillis(long thresholdMillis) {
+        slowQueryThresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+    }
+
+    public static Connection wrap(Connection connection, long acquireNanos) {
+        poolAcquire.record(acquireNanos);
+        return proxy(Connection.class, connection, new ConnectionHandler(connection));
+    }
+
+    static String fingerprint(String sql) {
+        String cached = fingerprints.get(sql);
+        if (cached != null) {
+            return cached;
+        }
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+        normalized = PARAMETER_LIST.matcher(normalized).replaceAll("(?...)");
+        normalized = ROW_LIST.matcher(normalized).replaceAll("(?...), ...");
+        if (fingerprints.size() < MAX_FINGERPRINTS * 4) {
+            fingerprints.put(sql, normalized);
+        }
+        return normalized;
+    }
+
+    private static StatementStats statsFor(String fingerprint) {
+        StatementStats stats = statementStats.get(fingerprint);
+        if (stats != null) {
+            return stats;
+        }
+        if (statementStats.size() >= MAX_FINGERPRINTS) {
+            return statementStats.computeIfAbsent(OVERFLOW_FINGERPRINT, key -> new StatementStats());
+        }
+        return statementStats.computeIfAbsent(fingerprint, key -> new StatementStats());
+    }
+
+    private static Map<String, Object> statementSnapshot() {
+        Map<String, Object> values = new TreeMap<>();
+        statementStats.forEach((fingerprint, stats) -> {
+            Map<String, Object> snapshot = new LinkedHashMap<>(stats.latency.snapshot());
+            snapshot.put("rowsReturned", stats.rows.sum());
+            snapshot.put("errors", stats.errors.sum());
+            values.put(fingerprint, snapshot);
+        });
+        return values;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(JdbcInstrumentation.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static class StatementStats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder rows = new LongAdder();
+        final LongAdder errors = new LongAdder();
+    }
+
+    private record ConnectionHandler(Connection target) implements InvocationHandler {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = JdbcInstrumentation.invoke(target, method, args);
+            if (result instanceof PreparedStatement statement && method.getName().equals("prepareStatement")) {
+                return proxy(PreparedStatement.class, statement, new StatementHandler(statement, (String) args[0]));
+            }
+            if (result instanceof Statement statement && method.getName().equals("createStatement")) {
+                return proxy(Statement.class, statement, new StatementHandler(statement, null));
+            }
+            return result;
+        }
+    }
+
+    private static class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String preparedSql;
+        private final Map<Integer, String> redactedParameters = new TreeMap<>();
+
+        StatementHandler(Statement target, String preparedSql) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                return timedExecute(method, args);
+            }
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                redactedParameters.put(index, redact(name, args[1]));
+            } else if (name.equals("clearParameters")) {
+                redactedParameters.clear();
+            }
+            return JdbcInstrumentation.invoke(target, method, args);
+        }
+
+        private Object timedExecute(Method method, Object[] args) throws Throwable {
+            String sql = preparedSql != null ? preparedSql
+                    : (args != null && args.length > 0 && args[0] instanceof String s ? s : "<batch>");
+            StatementStats stats = statsFor(fingerprint(sql));
+            long start = System.nanoTime();
+            try {
+                Object result = JdbcInstrumentation.invoke(target, method, args);
+                if (result instanceof ResultSet resultSet) {
+                    return proxy(ResultSet.class, resultSet, new ResultSetHandler(resultSet, stats));
+                }
+                return result;
+            } catch (Throwable e) {
+                stats.errors.increment();
+                throw e;
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                stats.latency.record(elapsed);
+                if (elapsed >= slowQueryThresholdNanos) {
+                    slowQueryLogger.warn("Consulta lenta ({} ms): {} params={}",
+                            TimeUnit.NANOSECONDS.toMillis(elapsed), fingerprint(sql), redactedParameters.values());
+                }
+            }
+        }
+
+        // Nunca se registra el valor: solo el tipo y, para textos, la longitud.
+        private static String redact(String setter, Object value) {
+            if (value == null || setter.equals("setNull")) {
+                return "null";
+            }
+            if (value instanceof String text) {
+                return "string(" + text.length() + ")";
+            }
+            return setter.substring(3).toLowerCase();
+        }
+    }
+
+    private record ResultSetHandler(ResultSet target, StatementStats stats) implements InvocationHandler {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = JdbcInstrumentation.invoke(target, method, args);
+            if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                stats.rows.increment();
+            }
+            return result;
+        }
+    }
+}
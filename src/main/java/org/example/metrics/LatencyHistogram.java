@@ -0,0 +1,61 @@
+package org.example.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias con cubetas en potencias de dos de microsegundos. Registrar una
+ * muestra no reserva memoria ni bloquea; los percentiles son aproximados al límite superior
+ * de la cubeta.
+ */
+public class LatencyHistogram {
+    private static final int BUCKETS = 40;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalMicros = new LongAdder();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    public void record(long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        buckets.incrementAndGet(bucket);
+        count.increment();
+        totalMicros.add(micros);
+        maxMicros.accumulateAndGet(micros, Math::max);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public Map<String, Object> snapshot() {
+        long samples = count.sum();
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("count", samples);
+        values.put("meanMicros", samples == 0 ? 0 : totalMicros.sum() / samples);
+        values.put("p50Micros", percentile(samples, 0.50));
+        values.put("p95Micros", percentile(samples, 0.95));
+        values.put("p99Micros", percentile(samples, 0.99));
+        values.put("maxMicros", maxMicros.get());
+        return values;
+    }
+
+    private long percentile(long samples, double quantile) {
+        if (samples == 0) {
+            return 0;
+        }
+        long target = (long) Math.ceil(samples * quantile);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= target) {
+                return i == 0 ? 0 : Math.min(1L << i, maxMicros.get());
+            }
+        }
+        return maxMicros.get();
+    }
+}
@@ -0,0 +1,25 @@
+package org.example.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Registro mínimo de métricas de la aplicación. Cada componente publica sus valores como
+ * suppliers y el endpoint de administración los evalúa bajo demanda.
+ */
+public class Metrics {
+
+    private static final Map<String, Supplier<?>> gauges = new ConcurrentHashMap<>();
+
+    public static void register(String name, Supplier<?> gauge) {
+        gauges.put(name, gauge);
+    }
+
+    public static Map<String, Object> snapshot() {
+        Map<String, Object> values = new TreeMap<>();
+        gauges.forEach((name, gauge) -> values.put(name, gauge.get()));
+        return values;
+    }
+}
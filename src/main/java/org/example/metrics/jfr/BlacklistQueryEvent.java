@@ -0,0 +1,28 @@
+package org.example.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("org.example.BlacklistQuery")
+@Label("Blacklist Query")
+@Category({"Javalin Tuto", "Database"})
+@Description("Consulta de tokens revocados en jwt_blacklist.")
+@StackTrace(false)
+public class BlacklistQueryEvent extends Event {
+    @Label("Request Id")
+    public String requestId;
+
+    @Label("Tokens")
+    public int tokens;
+
+    @Label("Revoked")
+    public int revoked;
+
+    @Label("Failed")
+    @Description("La operación terminó con error; las fallidas también se registran.")
+    public boolean failed;
+}
@@ -0,0 +1,103 @@
+package org.example.metrics.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.example.config.AppConfig;
+import org.example.exceptions.BadRequestException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Grabación continua de Java Flight Recorder con el perfil "default" del JDK más los eventos propios
+ * de la aplicación. Cada evento propio solo se guarda si supera su umbral, configurable con
+ * JFR_THRESHOLD_<EVENTO>_MS; la grabación conserva los últimos JFR_MAX_AGE_MINUTES minutos.
+ */
+public class JfrRecorder {
+    private static final Logger logger = LoggerFactory.getLogger(JfrRecorder.class);
+
+    private record EventThreshold(Class<? extends Event> eventClass, String key, int defaultMillis) {
+    }
+
+    private static final EventThreshold[] THRESHOLDS = {
+            new EventThreshold(JwtVerifyEvent.class, "JWT_VERIFY", 1),
+            new EventThreshold(BlacklistQueryEvent.class, "BLACKLIST_QUERY", 5),
+            new EventThreshold(PoolAcquireEvent.class, "POOL_ACQUIRE", 5),
+            new EventThreshold(PasswordHashEvent.class, "PASSWORD_HASH", 0),
+            new EventThreshold(JsonSerializationEvent.class, "JSON_SERIALIZATION", 1)
+    };
+
+    private static Recording recording;
+
+    /**
+     * @return false si ya había una grabación en curso.
+     */
+    public static synchronized boolean start() {
+        if (isRunning()) {
+            return false;
+        }
+        try {
+            recording = new Recording(Configuration.getConfiguration("default"));
+        } catch (IOException | ParseException e) {
+            throw new IllegalStateException("No se pudo cargar la configuración de JFR: " + e.getMessage(), e);
+        }
+        recording.setName("javalin-tuto");
+        recording.setToDisk(true);
+        recording.setMaxAge(Duration.ofMinutes(AppConfig.getJfrMaxAgeMinutes()));
+        for (EventThreshold threshold : THRESHOLDS) {
+            int millis = AppConfig.getJfrThresholdMillis(threshold.key(), threshold.defaultMillis());
+            recording.enable(threshold.eventClass()).withThreshold(Duration.ofMillis(millis));
+        }
+        recording.start();
+        logger.info("Grabación de JFR iniciada");
+        return true;
+    }
+
+    /**
+     * @return false si no había ninguna grabación en curso.
+     */
+    public static synchronized boolean stop() {
+        if (!isRunning()) {
+            return false;
+        }
+        recording.close();
+        recording = null;
+        logger.info("Grabación de JFR detenida");
+        return true;
+    }
+
+    /**
+     * Vuelca el contenido actual de la grabación, sin detenerla, a un fichero temporal.
+     */
+    public static synchronized Path dump() throws IOException {
+        if (!isRunning()) {
+            throw new BadRequestException("No JFR recording is running.");
+        }
+        Path file = Files.createTempFile("javalin-tuto-", ".jfr");
+        recording.dump(file);
+        return file;
+    }
+
+    public static synchronized Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("running", isRunning());
+        if (isRunning()) {
+            status.put("startedAt", recording.getStartTime().toString());
+            status.put("maxAgeMinutes", recording.getMaxAge().toMinutes());
+        }
+        return status;
+    }
+
+    private static boolean isRunning() {
+        return recording != null && recording.getState() == RecordingState.RUNNING;
+    }
+}
@@ -0,0 +1,24 @@
+package org.example.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("org.example.JsonSerialization")
+@Label("JSON Serialization")
+@Category({"Javalin Tuto", "Serialization"})
+@Description("Serialización de una respuesta con Jackson.")
+@StackTrace(false)
+public class JsonSerializationEvent extends Event {
+    @Label("Request Id")
+    public String requestId;
+
+    @Label("Type")
+    public String type;
+
+    @Label("Bytes")
+    public int bytes;
+}
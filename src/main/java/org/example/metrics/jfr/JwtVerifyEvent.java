@@ -0,0 +1,21 @@
+package org.example.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("org.example.JwtVerify")
+@Label("JWT Verification")
+@Category({"Javalin Tuto", "Auth"})
+@Description("Verificación de firma y expiración de un token JWT.")
+@StackTrace(false)
+public class JwtVerifyEvent extends Event {
+    @Label("Request Id")
+    public String requestId;
+
+    @Label("Valid")
+    public boolean valid;
+}
@@ -0,0 +1,21 @@
+package org.example.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("org.example.PasswordHash")
+@Label("Password Hash")
+@Category({"Javalin Tuto", "Auth"})
+@Description("Cálculo o verificación de un hash BCrypt.")
+@StackTrace(false)
+public class PasswordHashEvent extends Event {
+    @Label("Request Id")
+    public String requestId;
+
+    @Label("Operation")
+    public String operation;
+}
@@ -0,0 +1,28 @@
+package org.example.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("org.example.PoolAcquire")
+@Label("Connection Pool Acquire")
+@Category({"Javalin Tuto", "Database"})
+@Description("Espera para obtener una conexión: cupo de la clase de carga más el pool de Hikari.")
+@StackTrace(false)
+public class PoolAcquireEvent extends Event {
+    @Label("Request Id")
+    public String requestId;
+
+    @Label("Pool")
+    public String pool;
+
+    @Label("Workload Class")
+    public String workload;
+
+    @Label("Failed")
+    @Description("La operación terminó con error; las fallidas también se registran.")
+    public boolean failed;
+}
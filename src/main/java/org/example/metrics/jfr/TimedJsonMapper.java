@@ -0,0 +1,88 @@
+package org.example.metrics.jfr;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.javalin.json.JavalinJackson;
+import io.javalin.json.JsonMapper;
+import org.example.utils.RequestContext;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+/**
+ * JsonMapper de Javalin que emite un JsonSerializationEvent por cada respuesta serializada.
+ * JavalinJackson serializa toJsonStream en otro hilo a través de un pipe; aquí se serializa en el
+ * hilo de la petición para que el evento mida el coste real y lleve su id de correlación.
+ */
+public class TimedJsonMapper implements JsonMapper {
+    private final ObjectMapper objectMapper;
+    private final JavalinJackson delegate;
+
+    public TimedJsonMapper(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.delegate = new JavalinJackson(objectMapper, false);
+    }
+
+    @NotNull
+    @Override
+    public String toJsonString(@NotNull Object obj, @NotNull Type type) {
+        JsonSerializationEvent event = new JsonSerializationEvent();
+        event.begin();
+        String json = delegate.toJsonString(obj, type);
+        event.end();
+        if (event.shouldCommit()) {
+            event.requestId = RequestContext.getRequestId();
+            event.type = type.getTypeName();
+            event.bytes = json.length();
+            event.commit();
+        }
+        return json;
+    }
+
+    @NotNull
+    @Override
+    public InputStream toJsonStream(@NotNull Object obj, @NotNull Type type) {
+        if (obj instanceof String json) {
+            return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+        }
+        JsonSerializationEvent event = new JsonSerializationEvent();
+        event.begin();
+        byte[] body;
+        try {
+            body = objectMapper.writerFor(objectMapper.constructType(type)).writeValueAsBytes(obj);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.requestId = RequestContext.getRequestId();
+            event.type = type.getTypeName();
+            event.bytes = body.length;
+            event.commit();
+        }
+        return new ByteArrayInputStream(body);
+    }
+
+    @Override
+    public void writeToOutputStream(@NotNull Stream<?> stream, @NotNull OutputStream outputStream) {
+        delegate.writeToOutputStream(stream, outputStream);
+    }
+
+    @NotNull
+    @Override
+    public <T> T fromJsonString(@NotNull String json, @NotNull Type targetType) {
+        return delegate.fromJsonString(json, targetType);
+    }
+
+    @NotNull
+    @Override
+    public <T> T fromJsonStream(@NotNull InputStream json, @NotNull Type targetType) {
+        return delegate.fromJsonStream(json, targetType);
+    }
+}
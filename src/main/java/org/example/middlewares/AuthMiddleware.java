@@ -1,50 +1,64 @@
 package org.example.middlewares;
 
-import io.javalin.http.ForbiddenResponse;
+import io.jsonwebtoken.Claims;
+import io.javalin.http.Context;
 import io.javalin.http.Handler;
+import io.javalin.security.RouteRole;
+import org.example.exceptions.ForbiddenException;
 import org.example.exceptions.UnauthorizedException;
 import org.example.models.Role;
 import org.example.utils.JWTUtil;
 
+import java.util.Set;
+
 public class AuthMiddleware {
 
     /**
-     * Middleware que verifica si un token es válido y pone los datos del usuario en el contexto.
+     * Access manager declarativo: se registra una única vez con beforeMatched y aplica los roles
+     * declarados en cada ruta. Las rutas sin roles, o con Role.ANYONE, son públicas.
+     * Cada petición se autentica y autoriza exactamente una vez.
      */
-    public Handler requireAuth() {
+    public Handler accessManager() {
         return ctx -> {
-            String authHeader = ctx.header("Authorization");
-            String token = JWTUtil.extractTokenFromHeader(authHeader);
-
-            if (token == null) {
-                throw new UnauthorizedException("Authorization token required. Format must be 'Bearer <token>'.");
-            }
-            if (!JWTUtil.isTokenValid(token)) {
-                throw new UnauthorizedException("The provided token is invalid or has expired.");
+            Set<RouteRole> routeRoles = ctx.routeRoles();
+            if (routeRoles.isEmpty() || routeRoles.contains(Role.ANYONE)) {
+                return;
             }
-            
-            Integer userId = JWTUtil.extractUserId(token);
-            Role userRole = JWTUtil.extractUserRole(token);
 
-            if (userId == null || userRole == null) {
-                throw new UnauthorizedException("Invalid token: could not extract user details.");
+            Role userRole = authenticate(ctx);
+            if (!routeRoles.contains(userRole)) {
+                throw routeRoles.equals(Set.of(Role.ADMIN))
+                        ? ForbiddenException.ADMIN_REQUIRED
+                        : ForbiddenException.ROLE_NOT_ALLOWED;
             }
-
-            ctx.attribute("userId", userId);
-            ctx.attribute("userRole", userRole);
         };
     }
 
     /**
-     * Middleware que verifica si el usuario tiene el rol de ADMIN.
-     * DEBE ejecutarse después de requireAuth().
+     * Verifica que el token sea válido y pone los datos del usuario en el contexto.
      */
-    public Handler requireAdmin() {
-        return ctx -> {
-            Role userRole = ctx.attribute("userRole");
-            if (userRole != Role.ADMIN) {
-                throw new ForbiddenResponse("Access Denied: Administrator role required.");
-            }
-        };
+    private Role authenticate(Context ctx) {
+        String authHeader = ctx.header("Authorization");
+        String token = JWTUtil.extractTokenFromHeader(authHeader);
+
+        if (token == null) {
+            throw UnauthorizedException.TOKEN_REQUIRED;
+        }
+        Claims claims = JWTUtil.validateAndExtractClaims(token);
+        if (claims == null) {
+            throw UnauthorizedException.INVALID_TOKEN;
+        }
+
+        Integer userId = JWTUtil.extractUserId(claims);
+        Role userRole = JWTUtil.extractUserRole(claims);
+
+        if (userId == null || userRole == null) {
+            throw UnauthorizedException.MISSING_USER_DETAILS;
+        }
+
+        ctx.attribute("userId", userId);
+        ctx.attribute("userRole", userRole);
+        ctx.attribute("claims", claims);
+        return userRole;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,126 @@
+package org.example.middlewares;
+
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+import io.javalin.http.HandlerType;
+import org.example.config.WorkloadClass;
+import org.example.exceptions.ServiceUnavailableException;
+import org.example.metrics.Metrics;
+import org.example.utils.AdaptiveConcurrencyLimiter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Limita las peticiones en vuelo de las rutas que usan la base de datos. Hay un limitador adaptativo
+ * por clase de carga, con un máximo común (LIMITER_MAX): el permiso cubre la petición entera, no una
+ * conexión, así que el cupo de conexiones lo siguen aplicando los bulkheads del pool, que pueden
+ * encolar y agrupar consultas. Las rutas con una latencia propia muy distinta (el login con BCrypt)
+ * tienen un limitador aparte para no falsear la latencia habitual de las demás.
+ * El permiso se toma en beforeMatched, antes de autenticar, porque la consulta de revocación también
+ * ocupa una conexión; se devuelve en after(), que se ejecuta aunque la petición falle.
+ */
+public class ConcurrencyLimitMiddleware {
+
+    private static final String PERMIT_ATTRIBUTE = "concurrencyPermit";
+
+    private final boolean enabled;
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final Map<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+    private final Map<String, AdaptiveConcurrencyLimiter> routes = new ConcurrentHashMap<>();
+
+    private record Permit(AdaptiveConcurrencyLimiter limiter, long startNanos) {
+    }
+
+    public ConcurrencyLimitMiddleware(boolean enabled, int initialLimit, int minLimit, int maxLimit) {
+        this.enabled = enabled;
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = Math.max(minLimit, maxLimit);
+    }
+
+    /**
+     * Declara que la ruta usa la base de datos con la clase de carga indicada. La ruta se identifica
+     * por método y por la ruta con la que se registró el endpoint (por ejemplo, /api/users/{id}).
+     */
+    public void limit(HandlerType method, String path, WorkloadClass workloadClass) {
+        limitAs(method, path, workloadClass.name());
+    }
+
+    /**
+     * Igual que limit, pero la ruta tiene su propio limitador con el nombre indicado.
+     */
+    public void limitSeparately(HandlerType method, String path, String limiterName) {
+        limitAs(method, path, limiterName);
+    }
+
+    private void limitAs(HandlerType method, String path, String limiterName) {
+        if (enabled) {
+            routes.put(routeKey(method, path), limiters.computeIfAbsent(limiterName, this::createLimiter));
+        }
+    }
+
+    private AdaptiveConcurrencyLimiter createLimiter(String limiterName) {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit);
+        Metrics.register("limiter." + limiterName + ".limit", limiter::getLimit);
+        Metrics.register("limiter." + limiterName + ".inFlight", limiter::getInFlight);
+        return limiter;
+    }
+
+    /**
+     * Debe registrarse con beforeMatched antes que el access manager. Cuando se supera el límite
+     * responde 503 inmediatamente en lugar de esperar al pool.
+     */
+    public Handler before() {
+        return ctx -> {
+            AdaptiveConcurrencyLimiter limiter = routes.get(routeKey(ctx.method(), ctx.endpointHandlerPath()));
+            if (limiter == null) {
+                return;
+            }
+            if (!limiter.tryAcquire()) {
+                ctx.header("Retry-After", "1");
+                throw ServiceUnavailableException.OVERLOADED;
+            }
+            ctx.attribute(PERMIT_ATTRIBUTE, new Permit(limiter, System.nanoTime()));
+        };
+    }
+
+    public Handler after() {
+        return ctx -> {
+            Permit permit = ctx.attribute(PERMIT_ATTRIBUTE);
+            if (permit == null) {
+                return;
+            }
+            ctx.attribute(PERMIT_ATTRIBUTE, null);
+            // Un 4xx (credenciales inválidas, email desconocido) suele responderse sin hacer el trabajo
+            // de la ruta: su latencia bajaría la habitual y haría parecer congestionadas las peticiones normales.
+            if (isClientError(ctx)) {
+                permit.limiter().releaseWithoutSample();
+                return;
+            }
+            // Las respuestas 5xx (pool agotado, plazo vencido, base de datos caída) cuentan como saturación.
+            permit.limiter().release(System.nanoTime() - permit.startNanos(), isServerError(ctx));
+        };
+    }
+
+    /**
+     * Devuelve los limitadores a su estado inicial, sin tocar los permisos en vuelo.
+     */
+    public void reset() {
+        limiters.values().forEach(AdaptiveConcurrencyLimiter::reset);
+    }
+
+    private static boolean isClientError(Context ctx) {
+        return ctx.statusCode() >= 400 && ctx.statusCode() < 500;
+    }
+
+    private static boolean isServerError(Context ctx) {
+        return ctx.statusCode() >= 500;
+    }
+
+    private static String routeKey(HandlerType method, String path) {
+        return method.name() + " " + path;
+    }
+}
@@ -0,0 +1,103 @@
+package org.example.middlewares;
+
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+import io.javalin.http.HandlerType;
+import org.example.config.AppConfig;
+import org.example.exceptions.DeadlineExceededException;
+import org.example.utils.RequestContext;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plazo máximo de cada petición. El cliente puede fijarlo con X-Request-Timeout-Ms y cada ruta
+ * puede imponer el suyo con within(); vale el más corto. El plazo de la ruta se aplica en
+ * beforeMatched, antes de autenticar, para que también cubra la consulta de revocación. Queda en
+ * el Context y en RequestContext, desde donde DatabaseConfig limita la espera por una conexión y
+ * el timeout de cada sentencia, de modo que una petición que el cliente ya abandonó deja de ocupar el pool.
+ */
+public class DeadlineMiddleware {
+    public static final String HEADER = "X-Request-Timeout-Ms";
+
+    private static final long MAX_HEADER_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private final Map<String, Long> routeBudgetNanos = new ConcurrentHashMap<>();
+
+    public Handler before() {
+        return ctx -> {
+            Long budgetMillis = parseBudget(ctx.header(HEADER));
+            if (budgetMillis != null) {
+                setDeadline(ctx, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis));
+            }
+        };
+    }
+
+    /**
+     * Aplica a la ruta un plazo por defecto, configurable con DEADLINE_<GRUPO>_MS. La ruta se identifica
+     * por método y por la ruta con la que se registró el endpoint, como en ConcurrencyLimitMiddleware.
+     */
+    public void within(HandlerType method, String path, String group, int defaultMillis) {
+        long budgetMillis = AppConfig.getRouteDeadlineMillis(group, defaultMillis);
+        routeBudgetNanos.put(routeKey(method, path), TimeUnit.MILLISECONDS.toNanos(budgetMillis));
+    }
+
+    /**
+     * Debe registrarse con beforeMatched antes que el access manager. Rechaza la petición si el plazo
+     * ya venció antes de empezar (por ejemplo, con X-Request-Timeout-Ms: 0).
+     */
+    public Handler beforeMatched() {
+        return ctx -> {
+            Long budgetNanos = routeBudgetNanos.get(routeKey(ctx.method(), ctx.endpointHandlerPath()));
+            if (budgetNanos != null) {
+                long routeDeadline = System.nanoTime() + budgetNanos;
+                Long current = deadline(ctx);
+                if (current == null || routeDeadline - current < 0) {
+                    setDeadline(ctx, routeDeadline);
+                }
+            }
+            if (RequestContext.isDeadlineExceeded()) {
+                throw DeadlineExceededException.DEADLINE_EXCEEDED;
+            }
+        };
+    }
+
+    /**
+     * Plazo más largo de las rutas registradas, en milisegundos, o 0 si no hay ninguna.
+     */
+    public long getLongestRouteBudgetMillis() {
+        return routeBudgetNanos.values().stream()
+                .mapToLong(TimeUnit.NANOSECONDS::toMillis)
+                .max()
+                .orElse(0);
+    }
+
+    /**
+     * @return el instante de vencimiento en la escala de System.nanoTime(), o null si la petición no tiene plazo.
+     */
+    public static Long deadline(Context ctx) {
+        return ctx.attribute("deadline");
+    }
+
+    private static void setDeadline(Context ctx, long deadlineNanos) {
+        ctx.attribute("deadline", deadlineNanos);
+        RequestContext.setDeadline(deadlineNanos);
+    }
+
+    private static String routeKey(HandlerType method, String path) {
+        return method.name() + " " + path;
+    }
+
+    private static Long parseBudget(String header) {
+        if (header == null || header.isBlank()) {
+            return null;
+        }
+        try {
+            long millis = Long.parseLong(header.trim());
+            return millis < 0 ? null : Math.min(millis, MAX_HEADER_MILLIS);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
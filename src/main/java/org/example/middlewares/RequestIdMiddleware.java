@@ -0,0 +1,50 @@
+package org.example.middlewares;
+
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+import org.example.utils.RequestContext;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+/**
+ * Asigna a cada petición un id de correlación: reutiliza el X-Request-Id recibido si es válido o
+ * genera uno nuevo. Se devuelve en la respuesta y queda disponible en RequestContext para los
+ * eventos de JFR y los logs. Si la respuesta se sirvió con datos de respaldo, lo indica en X-Data-Stale.
+ */
+public class RequestIdMiddleware {
+    public static final String HEADER = "X-Request-Id";
+    public static final String STALE_HEADER = "X-Data-Stale";
+
+    private static final Pattern VALID_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+    public Handler before() {
+        return ctx -> {
+            String requestId = ctx.header(HEADER);
+            if (requestId == null || !VALID_ID.matcher(requestId).matches()) {
+                requestId = generate();
+            }
+            ctx.attribute("requestId", requestId);
+            ctx.header(HEADER, requestId);
+            RequestContext.setRequestId(requestId);
+        };
+    }
+
+    public Handler after() {
+        return ctx -> {
+            if (RequestContext.isStale()) {
+                ctx.header(STALE_HEADER, "true");
+            }
+            RequestContext.clear();
+        };
+    }
+
+    public static String requestId(Context ctx) {
+        return ctx.attribute("requestId");
+    }
+
+    private static String generate() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return Long.toHexString(random.nextLong() | Long.MIN_VALUE) + Long.toHexString(random.nextLong() | Long.MIN_VALUE);
+    }
+}
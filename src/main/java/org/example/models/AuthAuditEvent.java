@@ -0,0 +1,12 @@
+package org.example.models;
+
+import java.sql.Timestamp;
+
+/**
+ * Intento de login o logout para la tabla auth_audit. userId es null en los logins fallidos y
+ * email en los logouts y en los logins que llegan sin email.
+ */
+public record AuthAuditEvent(Type type, Integer userId, String email, String ip, Timestamp occurredAt) {
+
+    public enum Type { LOGIN_SUCCESS, LOGIN_FAILURE, LOGOUT }
+}
@@ -0,0 +1,6 @@
+package org.example.models;
+
+import java.sql.Timestamp;
+
+public record RevokedToken(String token, Timestamp expiryDate) {
+}
@@ -1,12 +1,30 @@
 package org.example.repositories;
 
 import org.example.models.User;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface UserRepository {
     Optional<User> findByEmail(String email);
     Optional<User> findById(int id);
     List<User> findAll();
+    List<User> findAllByIds(Collection<Integer> ids);
+    void forEach(Consumer<User> consumer);
     User save(User user);
+
+    /**
+     * Comprobación barata, sin consultar la base de datos, de si el email podría estar registrado.
+     * false es definitivo; true debe confirmarse con findByEmail.
+     */
+    default boolean mayContainEmail(String email) {
+        return true;
+    }
+
+    /**
+     * Libera los hilos de fondo del repositorio, si los tiene.
+     */
+    default void close() {
+    }
 }
\ No newline at end of file
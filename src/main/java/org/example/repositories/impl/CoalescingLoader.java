@@ -0,0 +1,163 @@
+package org.example.repositories.impl;
+
+import org.example.exceptions.DataAccessException;
+import org.example.utils.RequestContext;
+
+import java.sql.SQLTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Agrupa cargas concurrentes por clave. Las peticiones simultáneas de una misma clave comparten
+ * una única carga en vuelo, y las claves distintas que llegan mientras otra consulta está en curso
+ * se resuelven juntas en el siguiente lote, sin temporizadores que añadan latencia.
+ * Puede haber varios lotes en vuelo a la vez, hasta maxConcurrentBatches.
+ */
+class CoalescingLoader<K, V> {
+
+    private static final ExecutorService handOffExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "coalescing-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Function<List<K>, Map<K, V>> batchLoader;
+    private final int maxBatchSize;
+    private final ConcurrentHashMap<K, CompletableFuture<Optional<V>>> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Pending<K>> pending = new ConcurrentLinkedQueue<>();
+    private final Semaphore batchSlots;
+
+    // Clave encolada junto con el plazo de la petición que la encoló (null si no tiene).
+    private record Pending<K>(K key, Long deadline) {
+    }
+
+    CoalescingLoader(Function<List<K>, Map<K, V>> batchLoader, int maxBatchSize, int maxConcurrentBatches) {
+        this.batchLoader = batchLoader;
+        this.maxBatchSize = maxBatchSize;
+        this.batchSlots = new Semaphore(maxConcurrentBatches);
+    }
+
+    Optional<V> load(K key) {
+        CompletableFuture<Optional<V>> future = new CompletableFuture<>();
+        CompletableFuture<Optional<V>> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return await(key, existing);
+        }
+        pending.add(new Pending<>(key, RequestContext.getDeadline()));
+        if (batchSlots.tryAcquire()) {
+            runOneBatch();
+        }
+        return await(key, future);
+    }
+
+    /**
+     * Ejecuta un único lote con un hueco ya reservado. El hilo de la petición solo ejecuta el lote
+     * que empezó; si al terminar quedan claves encoladas, otro hilo se encarga del siguiente.
+     * Quien encola sin hueco libre cuenta con esa comprobación: la hace quien libera el hueco.
+     */
+    private void runOneBatch() {
+        try {
+            List<Pending<K>> batch = nextBatch();
+            if (!batch.isEmpty()) {
+                loadBatch(batch);
+            }
+        } finally {
+            batchSlots.release();
+        }
+        if (!pending.isEmpty() && batchSlots.tryAcquire()) {
+            handOffExecutor.execute(this::runOneBatch);
+        }
+    }
+
+    private List<Pending<K>> nextBatch() {
+        List<Pending<K>> batch = new ArrayList<>();
+        Pending<K> next;
+        while (batch.size() < maxBatchSize && (next = pending.poll()) != null) {
+            batch.add(next);
+        }
+        return batch;
+    }
+
+    /**
+     * El lote sirve a varias peticiones: se ejecuta con el plazo más lejano de las que encolaron sus
+     * claves, o sin plazo si alguna no lo tiene, para que la espera del pool y la consulta sigan acotadas.
+     */
+    private void loadBatch(List<Pending<K>> batch) {
+        List<K> keys = batch.stream().map(Pending::key).toList();
+        Long deadline = RequestContext.getDeadline();
+        RequestContext.setDeadline(latestDeadline(batch));
+        try {
+            Map<K, V> loaded = batchLoader.apply(keys);
+            for (K key : keys) {
+                CompletableFuture<Optional<V>> future = inFlight.remove(key);
+                if (future != null) {
+                    future.complete(Optional.ofNullable(loaded.get(key)));
+                }
+            }
+        } catch (Throwable e) {
+            for (K key : keys) {
+                CompletableFuture<Optional<V>> future = inFlight.remove(key);
+                if (future != null) {
+                    future.completeExceptionally(e);
+                }
+            }
+        } finally {
+            RequestContext.setDeadline(deadline);
+        }
+    }
+
+    private static Long latestDeadline(List<? extends Pending<?>> batch) {
+        Long latest = null;
+        for (Pending<?> next : batch) {
+            if (next.deadline() == null) {
+                return null;
+            }
+            if (latest == null || next.deadline() - latest > 0) {
+                latest = next.deadline();
+            }
+        }
+        return latest;
+    }
+
+    // Con plazo, se deja de esperar al vencer; la carga sigue y su resultado aprovecha a las demás.
+    private Optional<V> await(K key, CompletableFuture<Optional<V>> future) {
+        try {
+            if (RequestContext.getDeadline() == null) {
+                return future.join();
+            }
+            return future.get(Math.max(0, RequestContext.remainingNanos()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new DataAccessException("Request deadline exceeded while waiting for a coalesced load",
+                    new SQLTimeoutException("Request deadline exceeded while waiting for a coalesced load"));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataAccessException("Interrupted while waiting for a coalesced load", e);
+        } catch (CompletionException | ExecutionException e) {
+            // El lote venció por el plazo de otra petición: quien aún tiene tiempo vuelve a cargar la clave.
+            if (isDeadlineFailure(e.getCause()) && (RequestContext.getDeadline() == null || !RequestContext.isDeadlineExceeded())) {
+                return load(key);
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new CompletionException(e.getCause());
+        }
+    }
+
+    private static boolean isDeadlineFailure(Throwable failure) {
+        return failure instanceof DataAccessException && failure.getCause() instanceof SQLTimeoutException;
+    }
+}
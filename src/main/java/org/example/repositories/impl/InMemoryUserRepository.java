@@ -0,0 +1,142 @@
+package org.example.repositories.impl;
+
+import org.example.daos.UserDAO;
+import org.example.models.User;
+import org.example.repositories.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Repositorio que mantiene todos los usuarios en memoria, indexados por ID y por email.
+ * Las lecturas nunca tocan MySQL; las escrituras van primero a la base de datos y después al índice.
+ * Se carga completo al arrancar y, opcionalmente, se recarga de forma periódica para recoger
+ * usuarios creados por otras instancias.
+ */
+public class InMemoryUserRepository implements UserRepository {
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryUserRepository.class);
+
+    private final UserDAO userDAO;
+    private final ConcurrentHashMap<Integer, User> usersById = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, User> usersByEmail = new ConcurrentHashMap<>();
+    private ScheduledExecutorService refreshScheduler;
+
+    public InMemoryUserRepository(UserDAO userDAO, int refreshSeconds) {
+        this.userDAO = userDAO;
+        reload();
+        logger.info("Repositorio de usuarios en memoria cargado con {} usuarios", usersById.size());
+        if (refreshSeconds > 0) {
+            scheduleRefresh(refreshSeconds);
+        }
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        if (email == null || email.trim().isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(usersByEmail.get(emailKey(email)));
+    }
+
+    @Override
+    public Optional<User> findById(int id) {
+        return Optional.ofNullable(usersById.get(id));
+    }
+
+    @Override
+    public List<User> findAll() {
+        List<User> users = new ArrayList<>(usersById.values());
+        users.sort(Comparator.comparingInt(User::getId));
+        return users;
+    }
+
+    @Override
+    public List<User> findAllByIds(Collection<Integer> ids) {
+        return ids.stream()
+                .map(usersById::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Override
+    public void forEach(Consumer<User> consumer) {
+        usersById.keySet().stream()
+                .sorted()
+                .map(usersById::get)
+                .filter(Objects::nonNull)
+                .forEach(consumer);
+    }
+
+    @Override
+    public User save(User user) {
+        User savedUser = userDAO.save(user);
+        index(savedUser);
+        return savedUser;
+    }
+
+    @Override
+    public boolean mayContainEmail(String email) {
+        return email != null && !email.trim().isEmpty() && usersByEmail.containsKey(emailKey(email));
+    }
+
+    /**
+     * Vuelve a leer la tabla completa. Solo añade o reemplaza entradas: la aplicación no borra usuarios,
+     * y así una recarga concurrente con un save nunca elimina al usuario recién guardado.
+     */
+    public void reload() {
+        List<User> users = userDAO.findAll();
+        users.forEach(this::index);
+    }
+
+    /**
+     * Detiene la recarga periódica. Se llama al parar el servidor, antes de cerrar el pool,
+     * para que una recarga en curso no pida conexiones a un pool cerrado.
+     */
+    @Override
+    public void close() {
+        if (refreshScheduler != null) {
+            refreshScheduler.shutdownNow();
+        }
+    }
+
+    private synchronized void index(User user) {
+        User previous = usersById.put(user.getId(), user);
+        if (previous != null && !emailKey(previous.getEmail()).equals(emailKey(user.getEmail()))) {
+            usersByEmail.remove(emailKey(previous.getEmail()), previous);
+        }
+        usersByEmail.put(emailKey(user.getEmail()), user);
+    }
+
+    private void scheduleRefresh(int refreshSeconds) {
+        refreshScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-store-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refreshScheduler.scheduleWithFixedDelay(() -> {
+            try {
+                reload();
+            } catch (RuntimeException e) {
+                // Si MySQL no responde seguimos sirviendo los datos que ya tenemos.
+                logger.warn("No se pudo recargar el repositorio de usuarios en memoria: {}", e.getMessage());
+            }
+        }, refreshSeconds, refreshSeconds, TimeUnit.SECONDS);
+    }
+
+    // MySQL compara los emails sin distinguir mayúsculas; el índice hace lo mismo.
+    private static String emailKey(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
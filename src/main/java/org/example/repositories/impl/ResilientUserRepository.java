@@ -0,0 +1,230 @@
+package org.example.repositories.impl;
+
+import org.example.exceptions.DataAccessException;
+import org.example.metrics.Metrics;
+import org.example.models.User;
+import org.example.repositories.UserRepository;
+import org.example.utils.CircuitBreaker;
+import org.example.utils.CircuitBreaker.Permit;
+import org.example.utils.RequestContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Protege las lecturas de usuarios con un cortocircuito y guarda la última versión leída de cada
+ * usuario. Si la base de datos falla o el circuito está abierto, se responde con esa copia y la
+ * petición queda marcada como obsoleta en RequestContext; si no hay copia, se falla al instante
+ * con un error de saturación (503). Cuando el circuito queda medio abierto, la lectura de prueba
+ * se hace en segundo plano mientras la petición recibe la copia, y su resultado la refresca.
+ */
+public class ResilientUserRepository implements UserRepository {
+    private static final Logger logger = LoggerFactory.getLogger(ResilientUserRepository.class);
+
+    private static final int BREAKER_WINDOW = 20;
+    private static final int BREAKER_MINIMUM_CALLS = 10;
+
+    private final UserRepository delegate;
+    private final CircuitBreaker breaker;
+    private final int maxSnapshotEntries;
+    private final Map<Integer, User> usersById = new ConcurrentHashMap<>();
+    private final Map<String, Integer> idsByEmail = new ConcurrentHashMap<>();
+    private volatile List<User> allUsers;
+    private final LongAdder staleReads = new LongAdder();
+    private final ExecutorService revalidator = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "user-read-revalidation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ResilientUserRepository(UserRepository delegate, int failureRatePercent, long slowCallMillis,
+                                   long openMillis, int maxSnapshotEntries) {
+        this.delegate = delegate;
+        this.breaker = new CircuitBreaker("userRead", BREAKER_WINDOW, BREAKER_MINIMUM_CALLS,
+                failureRatePercent / 100.0, slowCallMillis, openMillis);
+        this.maxSnapshotEntries = maxSnapshotEntries;
+        Metrics.register("breaker.userRead.state", breaker::getState);
+        Metrics.register("breaker.userRead.opened", breaker::getOpenedCount);
+        Metrics.register("breaker.userRead.rejected", breaker::getRejectedCount);
+        Metrics.register("breaker.userRead.staleReads", staleReads::sum);
+        Metrics.register("breaker.userRead.snapshotSize", usersById::size);
+    }
+
+    /**
+     * Cortocircuito de la base de datos, para que otras consultas de la misma base lo compartan.
+     */
+    public CircuitBreaker getBreaker() {
+        return breaker;
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        if (email == null || email.trim().isEmpty()) {
+            return Optional.empty();
+        }
+        return read(() -> delegate.findByEmail(email),
+                () -> snapshotByEmail(email),
+                found -> found.ifPresent(this::remember));
+    }
+
+    @Override
+    public Optional<User> findById(int id) {
+        return read(() -> delegate.findById(id),
+                () -> {
+                    User user = usersById.get(id);
+                    return user != null ? Optional.of(user) : null;
+                },
+                found -> found.ifPresent(this::remember));
+    }
+
+    @Override
+    public List<User> findAll() {
+        return read(delegate::findAll, () -> allUsers, users -> {
+            users.forEach(this::remember);
+            allUsers = List.copyOf(users);
+        });
+    }
+
+    // Solo hay copia si están todos los ids pedidos: servir una lista incompleta ocultaría usuarios.
+    @Override
+    public List<User> findAllByIds(Collection<Integer> ids) {
+        return read(() -> delegate.findAllByIds(ids), () -> {
+            List<User> users = new ArrayList<>(ids.size());
+            for (Integer id : ids) {
+                User user = usersById.get(id);
+                if (user == null) {
+                    return null;
+                }
+                users.add(user);
+            }
+            return users;
+        }, users -> users.forEach(this::remember));
+    }
+
+    @Override
+    public void forEach(Consumer<User> consumer) {
+        delegate.forEach(consumer);
+    }
+
+    @Override
+    public User save(User user) {
+        User savedUser = delegate.save(user);
+        remember(savedUser);
+        allUsers = null;
+        return savedUser;
+    }
+
+    @Override
+    public boolean mayContainEmail(String email) {
+        return delegate.mayContainEmail(email);
+    }
+
+    @Override
+    public void close() {
+        revalidator.shutdownNow();
+        delegate.close();
+    }
+
+    /**
+     * @param snapshot devuelve la copia guardada, o null si no la hay.
+     */
+    private <T> T read(Supplier<T> loader, Supplier<T> snapshot, Consumer<T> remember) {
+        Permit permit = breaker.tryAcquire();
+        if (permit == Permit.REJECTED) {
+            return stale(snapshot.get(), null);
+        }
+        if (permit == Permit.PROBE) {
+            T cached = snapshot.get();
+            if (cached != null) {
+                revalidator.execute(() -> {
+                    try {
+                        call(permit, loader, remember);
+                    } catch (DataAccessException e) {
+                        logger.debug("La revalidación de lecturas de usuarios sigue fallando: {}", e.getMessage());
+                    }
+                });
+                return stale(cached, null);
+            }
+        }
+        try {
+            return call(permit, loader, remember);
+        } catch (DataAccessException e) {
+            // Si venció el plazo de la petición, el cliente ya no espera ni una copia.
+            if (isDeadlineExceeded(e)) {
+                throw e;
+            }
+            return stale(snapshot.get(), e);
+        }
+    }
+
+    private <T> T call(Permit permit, Supplier<T> loader, Consumer<T> remember) {
+        long start = System.nanoTime();
+        T result;
+        try {
+            result = loader.get();
+        } catch (DataAccessException e) {
+            if (isDeadlineExceeded(e)) {
+                breaker.onIgnored(permit);
+            } else {
+                breaker.onFailure(permit);
+            }
+            throw e;
+        }
+        breaker.onSuccess(permit, System.nanoTime() - start);
+        remember.accept(result);
+        return result;
+    }
+
+    private <T> T stale(T cached, DataAccessException failure) {
+        if (cached == null) {
+            if (failure != null) {
+                throw failure;
+            }
+            throw new DataAccessException("Lecturas de usuarios no disponibles temporalmente.",
+                    new SQLTransientConnectionException("Circuit breaker " + breaker.getName() + " is open"));
+        }
+        staleReads.increment();
+        RequestContext.markStale();
+        return cached;
+    }
+
+    private static boolean isDeadlineExceeded(DataAccessException e) {
+        return e.getCause() instanceof SQLTimeoutException && RequestContext.isDeadlineExceeded();
+    }
+
+    private Optional<User> snapshotByEmail(String email) {
+        Integer id = idsByEmail.get(emailKey(email));
+        User user = id != null ? usersById.get(id) : null;
+        return user != null ? Optional.of(user) : null;
+    }
+
+    // Al llenarse, la copia deja de admitir usuarios nuevos pero sigue actualizando los que ya tiene.
+    private void remember(User user) {
+        if (usersById.size() >= maxSnapshotEntries && !usersById.containsKey(user.getId())) {
+            return;
+        }
+        User previous = usersById.put(user.getId(), user);
+        if (previous != null && !previous.getEmail().equalsIgnoreCase(user.getEmail())) {
+            idsByEmail.remove(emailKey(previous.getEmail()), user.getId());
+        }
+        idsByEmail.put(emailKey(user.getEmail()), user.getId());
+    }
+
+    private static String emailKey(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -3,25 +3,49 @@ package org.example.repositories.impl;
 import org.example.daos.UserDAO;
 import org.example.models.User;
 import org.example.repositories.UserRepository;
+import org.example.utils.BloomFilter;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Consumer;
 
 public class UserRepositoryImpl implements UserRepository {
+    private static final int MAX_BATCH_SIZE = 100;
+    // Igual que el cupo de lecturas de usuarios: más lotes a la vez solo esperarían en el bulkhead.
+    private static final int MAX_CONCURRENT_BATCHES = 3;
+    private static final double EMAIL_FILTER_FALSE_POSITIVE_RATE = 0.01;
+
     private final UserDAO userDAO;
+    private final CoalescingLoader<Integer, User> idLoader;
+    private final CoalescingLoader<String, User> emailLoader;
+    private final BloomFilter emailFilter;
 
-    public UserRepositoryImpl(UserDAO userDAO) {
+    public UserRepositoryImpl(UserDAO userDAO, int expectedUsers) {
         this.userDAO = userDAO;
+        this.idLoader = new CoalescingLoader<>(this::loadByIds, MAX_BATCH_SIZE, MAX_CONCURRENT_BATCHES);
+        this.emailLoader = new CoalescingLoader<>(this::loadByEmails, MAX_BATCH_SIZE, MAX_CONCURRENT_BATCHES);
+        // Solo conoce los emails existentes al arrancar y los guardados por esta instancia; los que
+        // registren otras instancias los acaba rechazando el índice UNIQUE al insertar.
+        this.emailFilter = new BloomFilter(expectedUsers, EMAIL_FILTER_FALSE_POSITIVE_RATE);
+        userDAO.forEach(user -> emailFilter.add(emailKey(user.getEmail())));
     }
 
     @Override
     public Optional<User> findByEmail(String email) {
-        return userDAO.findByEmail(email);
+        if (email == null || email.trim().isEmpty()) {
+            return Optional.empty();
+        }
+        return emailLoader.load(email.trim());
     }
 
     @Override
     public Optional<User> findById(int id) {
-        return userDAO.findById(id);
+        return idLoader.load(id);
     }
 
     @Override
@@ -29,8 +53,51 @@ public class UserRepositoryImpl implements UserRepository {
         return userDAO.findAll();
     }
 
+    @Override
+    public List<User> findAllByIds(Collection<Integer> ids) {
+        return userDAO.findAllByIds(ids);
+    }
+
+    @Override
+    public void forEach(Consumer<User> consumer) {
+        userDAO.forEach(consumer);
+    }
+
     @Override
     public User save(User user) {
-        return userDAO.save(user);
+        User savedUser = userDAO.save(user);
+        emailFilter.add(emailKey(savedUser.getEmail()));
+        return savedUser;
+    }
+
+    @Override
+    public boolean mayContainEmail(String email) {
+        return email != null && emailFilter.mightContain(emailKey(email));
+    }
+
+    private static String emailKey(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Un lote de una sola clave usa la consulta puntual, que ya está en la caché de sentencias.
+    private Map<Integer, User> loadByIds(List<Integer> ids) {
+        Map<Integer, User> users = new HashMap<>();
+        if (ids.size() == 1) {
+            userDAO.findById(ids.get(0)).ifPresent(user -> users.put(user.getId(), user));
+            return users;
+        }
+        userDAO.findAllByIds(ids).forEach(user -> users.put(user.getId(), user));
+        return users;
+    }
+
+    // MySQL compara los emails sin distinguir mayúsculas, así que el índice del lote tampoco lo hace.
+    private Map<String, User> loadByEmails(List<String> emails) {
+        Map<String, User> users = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        if (emails.size() == 1) {
+            userDAO.findByEmail(emails.get(0)).ifPresent(user -> users.put(emails.get(0), user));
+            return users;
+        }
+        userDAO.findAllByEmails(emails).forEach(user -> users.put(user.getEmail(), user));
+        return users;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,25 @@
+package org.example.routes;
+
+import io.javalin.Javalin;
+import org.example.controllers.AdminController;
+import org.example.models.Role;
+
+public class AdminRoutes implements RouteHandler {
+    private final AdminController adminController;
+
+    public AdminRoutes(AdminController adminController) {
+        this.adminController = adminController;
+    }
+
+    @Override
+    public void register(Javalin app) {
+        // Ruta para CONSULTAR las métricas internas.
+        app.get("/api/admin/metrics", adminController::getMetrics, Role.ADMIN);
+
+        // Rutas para CONTROLAR la grabación de Java Flight Recorder.
+        app.get("/api/admin/jfr", adminController::getRecordingStatus, Role.ADMIN);
+        app.post("/api/admin/jfr/start", adminController::startRecording, Role.ADMIN);
+        app.post("/api/admin/jfr/stop", adminController::stopRecording, Role.ADMIN);
+        app.get("/api/admin/jfr/dump", adminController::dumpRecording, Role.ADMIN);
+    }
+}
@@ -1,23 +1,43 @@
 package org.example.routes;
 
 import io.javalin.Javalin;
+import io.javalin.http.HandlerType;
+import org.example.config.WorkloadClass;
 import org.example.controllers.AuthController;
-import org.example.middlewares.AuthMiddleware;
+import org.example.middlewares.ConcurrencyLimitMiddleware;
+import org.example.middlewares.DeadlineMiddleware;
+import org.example.models.Role;
 
 public class AuthenticationRoutes implements RouteHandler {
+    private static final String DEADLINE_GROUP = "AUTH";
+    private static final int DEADLINE_MILLIS = 3000;
+    private static final String LOGIN_LIMITER = "LOGIN";
+
     private final AuthController authController;
-    private final AuthMiddleware authMiddleware;
+    private final ConcurrencyLimitMiddleware concurrencyLimit;
+    private final DeadlineMiddleware deadlines;
 
-    public AuthenticationRoutes(AuthController authController, AuthMiddleware authMiddleware) {
+    public AuthenticationRoutes(AuthController authController, ConcurrencyLimitMiddleware concurrencyLimit,
+                                DeadlineMiddleware deadlines) {
         this.authController = authController;
-        this.authMiddleware = authMiddleware;
+        this.concurrencyLimit = concurrencyLimit;
+        this.deadlines = deadlines;
     }
 
     @Override
     public void register(Javalin app) {
-        app.post("/api/auth/login", authController::login);
+        app.post("/api/auth/login", authController::login, Role.ANYONE);
+        deadlines.within(HandlerType.POST, "/api/auth/login", DEADLINE_GROUP, DEADLINE_MILLIS);
+        // El login tarda lo que BCrypt, cientos de veces más que logout o introspect: limitador propio.
+        concurrencyLimit.limitSeparately(HandlerType.POST, "/api/auth/login", LOGIN_LIMITER);
+
+        app.post("/api/auth/logout", authController::logout, Role.ADMIN, Role.WAITER);
+        deadlines.within(HandlerType.POST, "/api/auth/logout", DEADLINE_GROUP, DEADLINE_MILLIS);
+        concurrencyLimit.limit(HandlerType.POST, "/api/auth/logout", WorkloadClass.AUTH_CRITICAL);
 
-        app.before("/api/auth/logout", authMiddleware.requireAuth());
-        app.post("/api/auth/logout", authController::logout);
+        // Introspección de tokens en lote para el gateway y los servicios internos.
+        app.post("/api/auth/introspect", authController::introspect, Role.ADMIN);
+        deadlines.within(HandlerType.POST, "/api/auth/introspect", DEADLINE_GROUP, DEADLINE_MILLIS);
+        concurrencyLimit.limit(HandlerType.POST, "/api/auth/introspect", WorkloadClass.AUTH_CRITICAL);
     }
-}
\ No newline at end of file
+}
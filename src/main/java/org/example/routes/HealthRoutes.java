@@ -0,0 +1,19 @@
+package org.example.routes;
+
+import io.javalin.Javalin;
+import org.example.controllers.HealthController;
+import org.example.models.Role;
+
+public class HealthRoutes implements RouteHandler {
+    private final HealthController healthController;
+
+    public HealthRoutes(HealthController healthController) {
+        this.healthController = healthController;
+    }
+
+    @Override
+    public void register(Javalin app) {
+        // Ruta PÚBLICA para las sondas de disponibilidad.
+        app.get("/health", healthController::getHealth, Role.ANYONE);
+    }
+}
@@ -1,37 +1,62 @@
 package org.example.routes;
 
 import io.javalin.Javalin;
+import io.javalin.http.HandlerType;
+import org.example.config.WorkloadClass;
 import org.example.controllers.UserController;
-import org.example.middlewares.AuthMiddleware;
+import org.example.controllers.UserEventsController;
+import org.example.middlewares.ConcurrencyLimitMiddleware;
+import org.example.middlewares.DeadlineMiddleware;
+import org.example.models.Role;
 
 public class UserRoutes implements RouteHandler {
+    // La exportación y los eventos SSE son respuestas largas a propósito y no llevan plazo por defecto.
+    private static final String DEADLINE_GROUP = "USERS";
+    private static final int DEADLINE_MILLIS = 5000;
+
     private final UserController userController;
-    private final AuthMiddleware authMiddleware;
+    private final UserEventsController userEventsController;
+    private final ConcurrencyLimitMiddleware concurrencyLimit;
+    private final DeadlineMiddleware deadlines;
 
-    public UserRoutes(UserController userController, AuthMiddleware authMiddleware) {
+    public UserRoutes(UserController userController, UserEventsController userEventsController,
+                      ConcurrencyLimitMiddleware concurrencyLimit, DeadlineMiddleware deadlines) {
         this.userController = userController;
-        this.authMiddleware = authMiddleware;
+        this.userEventsController = userEventsController;
+        this.concurrencyLimit = concurrencyLimit;
+        this.deadlines = deadlines;
     }
 
     @Override
     public void register(Javalin app) {
 
         // Ruta para OBTENER TODOS los usuarios.
-        app.before("/api/users", authMiddleware.requireAuth());
-        app.before("/api/users", authMiddleware.requireAdmin());
-        app.get("/api/users", userController::getAllUsers);
+        app.get("/api/users", userController::getAllUsers, Role.ADMIN);
+        deadlines.within(HandlerType.GET, "/api/users", DEADLINE_GROUP, DEADLINE_MILLIS);
+        concurrencyLimit.limit(HandlerType.GET, "/api/users", WorkloadClass.ADMIN_BULK);
 
         // Ruta para REGISTRAR un usuario.
-        app.before("/api/users/register", authMiddleware.requireAuth());
-        app.before("/api/users/register", authMiddleware.requireAdmin());
-        app.post("/api/users/register", userController::register);
+        app.post("/api/users/register", userController::register, Role.ADMIN);
+        deadlines.within(HandlerType.POST, "/api/users/register", DEADLINE_GROUP, DEADLINE_MILLIS);
+        concurrencyLimit.limit(HandlerType.POST, "/api/users/register", WorkloadClass.USER_WRITE);
+
+        // Ruta para CONSULTAR las estadísticas de usuarios (en memoria, sin consultas).
+        app.get("/api/users/stats", userController::getStats, Role.ADMIN);
+
+        // Ruta para EXPORTAR todos los usuarios en NDJSON o CSV.
+        app.get("/api/users/export", userController::exportUsers, Role.ADMIN);
+
+        // Ruta para RECIBIR los cambios de usuarios por Server-Sent Events.
+        app.sse("/api/users/events", userEventsController::stream, Role.ADMIN);
 
         // Ruta para OBTENER el perfil propio.
-        app.before("/api/users/profile", authMiddleware.requireAuth());
-        app.get("/api/users/profile", userController::getProfile);
+        app.get("/api/users/profile", userController::getProfile, Role.ADMIN, Role.WAITER);
+        deadlines.within(HandlerType.GET, "/api/users/profile", DEADLINE_GROUP, DEADLINE_MILLIS);
+        concurrencyLimit.limit(HandlerType.GET, "/api/users/profile", WorkloadClass.USER_READ);
 
         // Ruta para OBTENER un usuario por ID.
-        app.before("/api/users/{id}", authMiddleware.requireAuth());
-        app.get("/api/users/{id}", userController::getUserById);
+        app.get("/api/users/{id}", userController::getUserById, Role.ADMIN, Role.WAITER);
+        deadlines.within(HandlerType.GET, "/api/users/{id}", DEADLINE_GROUP, DEADLINE_MILLIS);
+        concurrencyLimit.limit(HandlerType.GET, "/api/users/{id}", WorkloadClass.USER_READ);
     }
-}
\ No newline at end of file
+}
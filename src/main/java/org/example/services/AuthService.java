@@ -1,54 +1,108 @@
 package org.example.services;
 
 import at.favre.lib.crypto.bcrypt.BCrypt;
+import io.jsonwebtoken.Claims;
+import org.example.dtos.auth.IntrospectRequest;
 import org.example.dtos.auth.LoginRequest;
 import org.example.dtos.auth.LoginResponse;
+import org.example.dtos.auth.TokenIntrospection;
 import org.example.exceptions.BadRequestException;
 import org.example.exceptions.UnauthorizedException;
 import org.example.mappers.UserMapper;
+import org.example.metrics.jfr.PasswordHashEvent;
+import org.example.models.AuthAuditEvent;
 import org.example.repositories.UserRepository;
+import org.example.utils.AuthAuditQueue;
 import org.example.utils.JWTUtil;
+import org.example.utils.RateLimitedLogger;
+import org.example.utils.RequestContext;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
 
 public class AuthService {
 
+    private static final int MAX_INTROSPECTION_TOKENS = 100;
+
+    private static final RateLimitedLogger rateLimitedLogger =
+            new RateLimitedLogger(LoggerFactory.getLogger(AuthService.class), Duration.ofSeconds(10));
+
     private final UserRepository userRepository;
     private final UserMapper userMapper;
+    private final AuthAuditQueue auditQueue;
 
-    public AuthService(UserRepository userRepository, UserMapper userMapper) {
+    public AuthService(UserRepository userRepository, UserMapper userMapper, AuthAuditQueue auditQueue) {
         this.userRepository = userRepository;
         this.userMapper = userMapper;
+        this.auditQueue = auditQueue;
     }
 
-    public LoginResponse login(LoginRequest loginRequest) {
-        if (loginRequest.email() == null || loginRequest.email().trim().isEmpty() ||
+    public LoginResponse login(LoginRequest loginRequest, String clientIp) {
+        if (loginRequest == null || loginRequest.email() == null || loginRequest.email().trim().isEmpty() ||
                 loginRequest.password() == null || loginRequest.password().trim().isEmpty()) {
-            throw new BadRequestException("Email and password are required.");
+            // También es un intento de acceso: se audita con el email recibido, si lo hay.
+            String email = loginRequest != null && loginRequest.email() != null && !loginRequest.email().trim().isEmpty()
+                    ? loginRequest.email().trim()
+                    : null;
+            auditQueue.record(AuthAuditEvent.Type.LOGIN_FAILURE, null, email, clientIp);
+            throw BadRequestException.CREDENTIALS_REQUIRED;
         }
 
-        return userRepository.findByEmail(loginRequest.email().trim())
+        String email = loginRequest.email().trim();
+        return userRepository.findByEmail(email)
                 .filter(user -> verifyPassword(loginRequest.password(), user.getPassword()))
                 .map(user -> {
                     String token = JWTUtil.generateToken(user);
+                    auditQueue.record(AuthAuditEvent.Type.LOGIN_SUCCESS, user.getId(), user.getEmail(), clientIp);
                     return new LoginResponse(token, userMapper.toUserDTO(user));
                 })
-                .orElseThrow(() -> new UnauthorizedException("Invalid credentials."));
+                .orElseThrow(() -> {
+                    auditQueue.record(AuthAuditEvent.Type.LOGIN_FAILURE, null, email, clientIp);
+                    return UnauthorizedException.INVALID_CREDENTIALS;
+                });
     }
 
-    public void logout(String token) {
-        if (JWTUtil.isTokenValid(token)) {
-            JWTUtil.blacklistToken(token);
+    /**
+     * El token ya viene autenticado por AuthMiddleware: se revoca con sus claims, sin volver a
+     * verificar la firma ni consultar la blacklist.
+     */
+    public void logout(String token, Claims claims, Integer userId, String clientIp) {
+        if (token == null || claims == null) {
+            throw UnauthorizedException.TOKEN_REQUIRED;
+        }
+        JWTUtil.blacklistToken(token, claims);
+        auditQueue.record(AuthAuditEvent.Type.LOGOUT, userId, null, clientIp);
+    }
+
+    public List<TokenIntrospection> introspect(IntrospectRequest request) {
+        if (request == null || request.tokens() == null || request.tokens().isEmpty()) {
+            throw new BadRequestException("At least one token is required.");
+        }
+        if (request.tokens().size() > MAX_INTROSPECTION_TOKENS) {
+            throw new BadRequestException("A maximum of " + MAX_INTROSPECTION_TOKENS + " tokens can be introspected at once.");
         }
+        return JWTUtil.introspect(request.tokens());
     }
 
     private boolean verifyPassword(String rawPassword, String hashedPassword) {
         if (rawPassword == null || hashedPassword == null) {
             return false;
         }
+        PasswordHashEvent event = new PasswordHashEvent();
+        event.begin();
         try {
             return BCrypt.verifyer().verify(rawPassword.toCharArray(), hashedPassword).verified;
         } catch (Exception e) {
-            System.err.println("Error during password verification: " + e.getMessage());
+            rateLimitedLogger.warn("auth.password-verification", "Error during password verification: {}", e.getMessage());
             return false;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.requestId = RequestContext.getRequestId();
+                event.operation = "verify";
+                event.commit();
+            }
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,11 @@
+package org.example.services;
+
+import org.example.dtos.user.UserDTO;
+
+/**
+ * Recibe los cambios de usuarios que realiza UserService, después de que se hayan guardado.
+ */
+@FunctionalInterface
+public interface UserChangeListener {
+    void onUserCreated(UserDTO user);
+}
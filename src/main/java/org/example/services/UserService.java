@@ -4,18 +4,32 @@ import at.favre.lib.crypto.bcrypt.BCrypt;
 import org.example.dtos.auth.RegisterRequest;
 import org.example.dtos.user.UserDTO;
 import org.example.exceptions.BadRequestException;
+import org.example.exceptions.DuplicateKeyException;
 import org.example.exceptions.NotFoundException;
 import org.example.mappers.UserMapper;
+import org.example.metrics.jfr.PasswordHashEvent;
 import org.example.models.Role;
 import org.example.models.User;
 import org.example.repositories.UserRepository;
+import org.example.utils.RequestContext;
 
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 public class UserService {
 
+    private static final int MAX_BATCH_IDS = 100;
+
     private final UserRepository userRepository;
     private final UserMapper userMapper;
+    private final List<UserChangeListener> changeListeners = new CopyOnWriteArrayList<>();
 
     public UserService(UserRepository userRepository, UserMapper userMapper) {
         this.userRepository = userRepository;
@@ -25,8 +39,10 @@ public class UserService {
     public UserDTO registerWaiter(RegisterRequest request) {
         validateRegistrationRequest(request);
 
-        if (userRepository.findByEmail(request.email().trim()).isPresent()) {
-            throw new BadRequestException("Email '" + request.email() + "' is already in use.");
+        // El filtro descarta sin consultas los emails nuevos; un positivo se confirma antes de pagar BCrypt.
+        String email = request.email().trim();
+        if (userRepository.mayContainEmail(email) && userRepository.findByEmail(email).isPresent()) {
+            throw emailInUse(request);
         }
 
         User newUser = new User();
@@ -35,36 +51,88 @@ public class UserService {
             newUser.setMiddleName(request.middleName().trim());
         }
         newUser.setLastName(request.lastName().trim());
-        newUser.setEmail(request.email().trim());
+        newUser.setEmail(email);
         
+        PasswordHashEvent event = new PasswordHashEvent();
+        event.begin();
         String hashedPassword = BCrypt.withDefaults().hashToString(12, request.password().toCharArray());
+        event.end();
+        if (event.shouldCommit()) {
+            event.requestId = RequestContext.getRequestId();
+            event.operation = "hash";
+            event.commit();
+        }
         newUser.setPassword(hashedPassword);
         
         newUser.setRole(Role.WAITER);
 
-        User savedUser = userRepository.save(newUser);
-        return userMapper.toUserDTO(savedUser);
+        // La unicidad la garantiza el índice UNIQUE en el mismo INSERT, también ante registros concurrentes.
+        User savedUser;
+        try {
+            savedUser = userRepository.save(newUser);
+        } catch (DuplicateKeyException e) {
+            throw emailInUse(request);
+        }
+        UserDTO savedUserDTO = userMapper.toUserDTO(savedUser);
+        changeListeners.forEach(listener -> listener.onUserCreated(savedUserDTO));
+        return savedUserDTO;
+    }
+
+    public void addChangeListener(UserChangeListener listener) {
+        changeListeners.add(listener);
     }
 
     public List<UserDTO> findAllUsers() {
         return userMapper.toUserDTOList(userRepository.findAll());
     }
 
+    /**
+     * Entrega los usuarios de uno en uno, en orden de ID, sin acumularlos en memoria.
+     */
+    public void exportUsers(Consumer<UserDTO> consumer) {
+        userRepository.forEach(user -> consumer.accept(userMapper.toUserDTO(user)));
+    }
+
+    /**
+     * Resuelve varios usuarios con una sola consulta. Conserva el orden pedido y omite los IDs que no existen.
+     */
+    public List<UserDTO> findUsersByIds(List<Integer> ids) {
+        Set<Integer> uniqueIds = new LinkedHashSet<>(ids);
+        if (uniqueIds.isEmpty()) {
+            throw new BadRequestException("At least one user ID is required.");
+        }
+        if (uniqueIds.size() > MAX_BATCH_IDS) {
+            throw new BadRequestException("A maximum of " + MAX_BATCH_IDS + " user IDs can be requested at once.");
+        }
+
+        Map<Integer, User> usersById = userRepository.findAllByIds(uniqueIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        return uniqueIds.stream()
+                .map(usersById::get)
+                .filter(Objects::nonNull)
+                .map(userMapper::toUserDTO)
+                .collect(Collectors.toList());
+    }
+
     public UserDTO findUserById(int id) {
         return userRepository.findById(id)
                 .map(userMapper::toUserDTO)
                 .orElseThrow(() -> new NotFoundException("User with ID " + id + " not found."));
     }
 
+    private static BadRequestException emailInUse(RegisterRequest request) {
+        return new BadRequestException("Email '" + request.email() + "' is already in use.");
+    }
+
     private void validateRegistrationRequest(RegisterRequest request) {
         if (request.firstName() == null || request.firstName().trim().isEmpty() ||
             request.lastName() == null || request.lastName().trim().isEmpty() ||
             request.email() == null || request.email().trim().isEmpty() ||
             request.password() == null || request.password().isEmpty()) {
-            throw new BadRequestException("First name, last name, email, and password are required.");
+            throw BadRequestException.REGISTRATION_FIELDS_REQUIRED;
         }
         if (!request.password().equals(request.confirmPassword())) {
-            throw new BadRequestException("Passwords do not match.");
+            throw BadRequestException.PASSWORDS_DO_NOT_MATCH;
         }
     }
 }
\ No newline at end of file
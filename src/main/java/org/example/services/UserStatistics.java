@@ -0,0 +1,125 @@
+package org.example.services;
+
+import org.example.daos.UserDAO;
+import org.example.dtos.user.UserDTO;
+import org.example.dtos.user.UserStatsDTO;
+import org.example.models.Role;
+
+import java.sql.Timestamp;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Estadísticas de usuarios mantenidas en memoria: totales por rol y altas por hora en una ventana
+ * de 7 días. Se cargan una vez con consultas agregadas y después se actualizan con cada alta, así
+ * que consultarlas nunca toca MySQL. Solo ven las altas hechas por esta instancia; las de otras
+ * instancias aparecen tras un reinicio.
+ */
+public class UserStatistics implements UserChangeListener {
+    private static final int HOURS_PER_DAY = 24;
+    private static final int WINDOW_DAYS = 7;
+    private static final int WINDOW_HOURS = HOURS_PER_DAY * WINDOW_DAYS;
+    private static final long MILLIS_PER_HOUR = TimeUnit.HOURS.toMillis(1);
+
+    private final long[] countsByRole = new long[Role.values().length];
+    // Cubetas circulares por hora: cada una recuerda a qué hora (epoch) pertenecen sus altas.
+    private final long[] hourlyCounts = new long[WINDOW_HOURS];
+    private final long[] hourlyStamps = new long[WINDOW_HOURS];
+
+    public UserStatistics(UserDAO userDAO) {
+        long currentHour = currentHour();
+        long firstHour = currentHour - WINDOW_HOURS + 1;
+        Map<Role, Long> byRole = userDAO.countByRole();
+        Map<Long, Long> byHour = userDAO.countRegistrationsByHourSince(new Timestamp(firstHour * MILLIS_PER_HOUR));
+        synchronized (this) {
+            byRole.forEach((role, count) -> countsByRole[role.ordinal()] = count);
+            byHour.forEach((hour, count) -> {
+                if (hour >= firstHour && hour <= currentHour) {
+                    bucketFor(hour);
+                    hourlyCounts[index(hour)] += count;
+                }
+            });
+        }
+    }
+
+    @Override
+    public synchronized void onUserCreated(UserDTO user) {
+        if (user.role() != null) {
+            countsByRole[user.role().ordinal()]++;
+        }
+        long hour = user.createdAt() != null
+                ? user.createdAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() / MILLIS_PER_HOUR
+                : currentHour();
+        long currentHour = currentHour();
+        if (hour > currentHour - WINDOW_HOURS && hour <= currentHour) {
+            bucketFor(hour);
+            hourlyCounts[index(hour)]++;
+        }
+    }
+
+    /**
+     * Coste constante: recorre como mucho los roles y las 168 cubetas de la ventana.
+     */
+    public synchronized UserStatsDTO snapshot() {
+        Map<Role, Long> byRole = new EnumMap<>(Role.class);
+        long total = 0;
+        for (Role role : Role.values()) {
+            if (role == Role.ANYONE) {
+                continue;
+            }
+            byRole.put(role, countsByRole[role.ordinal()]);
+            total += countsByRole[role.ordinal()];
+        }
+
+        long currentHour = currentHour();
+        List<Long> byHour = new ArrayList<>(HOURS_PER_DAY);
+        List<Long> byDay = new ArrayList<>(WINDOW_DAYS);
+        long dayCount = 0;
+        // Del más reciente al más antiguo; las listas se invierten al final.
+        for (int offset = 0; offset < WINDOW_HOURS; offset++) {
+            long count = countAt(currentHour - offset);
+            if (offset < HOURS_PER_DAY) {
+                byHour.add(count);
+            }
+            dayCount += count;
+            if ((offset + 1) % HOURS_PER_DAY == 0) {
+                byDay.add(dayCount);
+                dayCount = 0;
+            }
+        }
+        Collections.reverse(byHour);
+        Collections.reverse(byDay);
+
+        long lastDay = byDay.get(byDay.size() - 1);
+        long lastWeek = byDay.stream().mapToLong(Long::longValue).sum();
+        return new UserStatsDTO(total, byRole, byHour.get(byHour.size() - 1), lastDay, lastWeek,
+                List.copyOf(byHour), List.copyOf(byDay));
+    }
+
+    private long countAt(long hour) {
+        int index = index(hour);
+        return hourlyStamps[index] == hour ? hourlyCounts[index] : 0;
+    }
+
+    // Reutiliza la cubeta si todavía guarda una hora que ya salió de la ventana.
+    private void bucketFor(long hour) {
+        int index = index(hour);
+        if (hourlyStamps[index] != hour) {
+            hourlyStamps[index] = hour;
+            hourlyCounts[index] = 0;
+        }
+    }
+
+    private static int index(long hour) {
+        return (int) Math.floorMod(hour, (long) WINDOW_HOURS);
+    }
+
+    private long currentHour() {
+        return System.currentTimeMillis() / MILLIS_PER_HOUR;
+    }
+}
@@ -0,0 +1,109 @@
+package org.example.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Límite de concurrencia adaptativo de tipo AIMD. Aprende cuántas peticiones en vuelo aguanta el
+ * sistema a partir de la latencia observada: mientras la latencia se mantiene cerca de la habitual
+ * y el límite se está usando, crece de forma aditiva; cuando la latencia se dispara o una petición
+ * falla por falta de recursos, se reduce de forma multiplicativa.
+ * La latencia habitual es una media móvil lenta y no la mínima: la espera normal en el pool o en la
+ * CPU forma parte de la latencia sana y no debe confundirse con saturación.
+ * Las peticiones que exceden el límite se rechazan al instante en lugar de encolarse.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double LATENCY_TOLERANCE = 2.0;
+    private static final long JITTER_ALLOWANCE_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+    private static final double BACKOFF_RATIO = 0.9;
+    // Peso de cada muestra en la latencia habitual: se adapta en unos cientos de peticiones.
+    private static final double BASELINE_SMOOTHING = 0.01;
+
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double limit;
+    private double baselineRttNanos;
+    private long samples;
+    private long nextDecreaseAt = System.nanoTime();
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.initialLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = this.initialLimit;
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @param rttNanos duración de la petición.
+     * @param dropped true si la petición falló por saturación (p. ej. timeout del pool).
+     */
+    public void release(long rttNanos, boolean dropped) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        update(rttNanos, dropped, inFlightBefore);
+    }
+
+    /**
+     * Devuelve el permiso sin tomar la muestra, para peticiones cuya duración no refleja la carga
+     * (por ejemplo, las rechazadas por datos inválidos antes de hacer el trabajo).
+     */
+    public void releaseWithoutSample() {
+        inFlight.decrementAndGet();
+    }
+
+    private synchronized void update(long rttNanos, boolean dropped, int inFlightBefore) {
+        long now = System.nanoTime();
+        double current = limit;
+        boolean congested = dropped
+                || samples > 0 && rttNanos > baselineRttNanos * LATENCY_TOLERANCE + JITTER_ALLOWANCE_NANOS;
+        // Las primeras muestras se promedian sin más; después pesan poco, para que un pico no mueva la referencia.
+        // Las peticiones fallidas no cuentan: suelen terminar antes de tiempo.
+        if (!dropped) {
+            samples++;
+            baselineRttNanos += Math.max(BASELINE_SMOOTHING, 1.0 / samples) * (rttNanos - baselineRttNanos);
+        }
+        if (congested) {
+            // Una sola reducción por ventana de latencia: una ráfaga de muestras lentas no hunde el límite.
+            if (now - nextDecreaseAt >= 0) {
+                limit = Math.max(minLimit, current * BACKOFF_RATIO);
+                nextDecreaseAt = now + rttNanos;
+            }
+        } else if (inFlightBefore * 2 >= current) {
+            limit = Math.min(maxLimit, current + 1.0 / current);
+        }
+    }
+
+    /**
+     * Olvida lo aprendido (límite y latencia habitual), por ejemplo tras el tráfico sintético del calentamiento.
+     */
+    public synchronized void reset() {
+        long now = System.nanoTime();
+        limit = initialLimit;
+        baselineRttNanos = 0;
+        samples = 0;
+        nextDecreaseAt = now;
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
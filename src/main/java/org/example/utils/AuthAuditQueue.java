@@ -0,0 +1,124 @@
+package org.example.utils;
+
+import org.example.daos.AuthAuditDAO;
+import org.example.metrics.Metrics;
+import org.example.models.AuthAuditEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Auditoría de login y logout fuera del camino de la petición. Registrar un evento solo lo
+ * publica en una MpscRingBuffer; un hilo en segundo plano la vacía y escribe los eventos en
+ * auth_audit en lotes. Si la cola está llena el evento se descarta y se cuenta, para no frenar
+ * nunca un login por culpa de la auditoría.
+ */
+public class AuthAuditQueue {
+    private static final Logger logger = LoggerFactory.getLogger(AuthAuditQueue.class);
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final long RETRY_DELAY_MILLIS = 1000;
+    private static final int MAX_EMAIL_LENGTH = 255;
+
+    private final AuthAuditDAO auditDAO;
+    private final int batchSize;
+    private final MpscRingBuffer<AuthAuditEvent> buffer;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder flushedEvents = new LongAdder();
+    private final LongAdder flushedBatches = new LongAdder();
+    private final LongAdder failedFlushes = new LongAdder();
+    private final AtomicLong lastFlushMillis = new AtomicLong();
+
+    public AuthAuditQueue(AuthAuditDAO auditDAO, int capacity, int batchSize) {
+        this.auditDAO = auditDAO;
+        this.batchSize = batchSize;
+        this.buffer = new MpscRingBuffer<>(capacity);
+        this.writer = new Thread(this::runWriter, "auth-audit-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+
+        Metrics.register("audit.queue.depth", buffer::size);
+        Metrics.register("audit.queue.capacity", buffer::capacity);
+        Metrics.register("audit.dropped", dropped::sum);
+        Metrics.register("audit.flush.events", flushedEvents::sum);
+        Metrics.register("audit.flush.batches", flushedBatches::sum);
+        Metrics.register("audit.flush.failures", failedFlushes::sum);
+        Metrics.register("audit.flush.lastMillis", lastFlushMillis::get);
+    }
+
+    public void record(AuthAuditEvent.Type type, Integer userId, String email, String ip) {
+        if (email != null && email.length() > MAX_EMAIL_LENGTH) {
+            email = email.substring(0, MAX_EMAIL_LENGTH);
+        }
+        AuthAuditEvent event = new AuthAuditEvent(type, userId, email, ip, new Timestamp(System.currentTimeMillis()));
+        if (!running || !buffer.offer(event)) {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Deja de aceptar eventos y espera a que el hilo escritor vuelque los pendientes.
+     * Debe llamarse antes de cerrar el pool.
+     */
+    public void close(long timeoutMillis) {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!buffer.isEmpty()) {
+            logger.error("{} eventos de auditoría no llegaron a persistirse en auth_audit", buffer.size());
+        }
+    }
+
+    private void runWriter() {
+        List<AuthAuditEvent> batch = new ArrayList<>(batchSize);
+        while (running || !buffer.isEmpty() || !batch.isEmpty()) {
+            if (batch.isEmpty()) {
+                buffer.drainTo(batch, batchSize);
+            }
+            if (batch.isEmpty()) {
+                // Los productores no despiertan al escritor: así offer() se queda en un CAS.
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                continue;
+            }
+            if (flush(batch)) {
+                batch.clear();
+                continue;
+            }
+            if (!running) {
+                // Al apagar no reintentamos indefinidamente contra una base de datos caída.
+                logger.error("Se descartan {} eventos de auditoría pendientes al cerrar", batch.size() + buffer.size());
+                return;
+            }
+            LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(RETRY_DELAY_MILLIS));
+        }
+    }
+
+    private boolean flush(List<AuthAuditEvent> batch) {
+        long start = System.nanoTime();
+        try {
+            auditDAO.saveAll(batch);
+        } catch (RuntimeException e) {
+            failedFlushes.increment();
+            logger.warn("No se pudo volcar un lote de {} eventos de auditoría: {}", batch.size(), e.getMessage());
+            return false;
+        }
+        lastFlushMillis.set(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        flushedEvents.add(batch.size());
+        flushedBatches.increment();
+        return true;
+    }
+}
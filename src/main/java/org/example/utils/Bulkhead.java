@@ -0,0 +1,70 @@
+package org.example.utils;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cupo de permisos con espera acotada. Quien no obtiene un permiso dentro del timeout se rechaza,
+ * en lugar de quedarse esperando detrás de otra carga.
+ */
+public class Bulkhead {
+    private final String name;
+    private final int maxPermits;
+    private final long timeoutNanos;
+    private final Semaphore permits;
+    private final LongAdder rejected = new LongAdder();
+
+    public Bulkhead(String name, int maxPermits, long timeoutMillis) {
+        this.name = name;
+        this.maxPermits = maxPermits;
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        this.permits = new Semaphore(maxPermits, true);
+    }
+
+    /**
+     * @return false si no quedó ningún permiso libre antes del timeout.
+     */
+    public boolean tryAcquire() throws InterruptedException {
+        return tryAcquire(timeoutNanos);
+    }
+
+    /**
+     * Como tryAcquire(), pero sin esperar más de maxWaitNanos aunque el timeout del cupo sea mayor.
+     */
+    public boolean tryAcquire(long maxWaitNanos) throws InterruptedException {
+        if (permits.tryAcquire(Math.max(0, Math.min(timeoutNanos, maxWaitNanos)), TimeUnit.NANOSECONDS)) {
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    public long getTimeoutNanos() {
+        return timeoutNanos;
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxPermits() {
+        return maxPermits;
+    }
+
+    public int getInUse() {
+        return maxPermits - permits.availablePermits();
+    }
+
+    public int getWaiting() {
+        return permits.getQueueLength();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+}
@@ -0,0 +1,151 @@
+package org.example.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cortocircuito por tasa de fallos. Lleva el resultado de las últimas llamadas en una ventana
+ * circular, contando como fallo tanto los errores como las llamadas más lentas que el umbral.
+ * Cuando la proporción de fallos supera el límite se abre y rechaza al instante durante un
+ * tiempo; después queda medio abierto y deja pasar una única llamada de prueba que lo cierra
+ * si sale bien o lo vuelve a abrir si falla.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    /** Qué puede hacer quien pidió paso: llamar con normalidad, hacer la llamada de prueba o nada. */
+    public enum Permit { CALL, PROBE, REJECTED }
+
+    private final String name;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long slowCallNanos;
+    private final long openNanos;
+
+    private final boolean[] window;
+    private int recorded;
+    private int next;
+    private int failures;
+    private State state = State.CLOSED;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder opened = new LongAdder();
+
+    /**
+     * @param failureRateThreshold proporción de fallos (0-1) en la ventana a partir de la cual se abre.
+     */
+    public CircuitBreaker(String name, int windowSize, int minimumCalls, double failureRateThreshold,
+                          long slowCallMillis, long openMillis) {
+        this.name = name;
+        this.window = new boolean[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(slowCallMillis);
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+    }
+
+    public synchronized Permit tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openNanos) {
+                rejected.increment();
+                return Permit.REJECTED;
+            }
+            state = State.HALF_OPEN;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probeInFlight) {
+                rejected.increment();
+                return Permit.REJECTED;
+            }
+            probeInFlight = true;
+            return Permit.PROBE;
+        }
+        return Permit.CALL;
+    }
+
+    public void onSuccess(Permit permit, long elapsedNanos) {
+        record(permit, elapsedNanos > slowCallNanos);
+    }
+
+    public void onFailure(Permit permit) {
+        record(permit, true);
+    }
+
+    /**
+     * Devuelve el permiso sin contar la llamada, para fallos que no dicen nada de la base de datos
+     * (p. ej. un plazo de petición demasiado corto). Una prueba así deja paso a la siguiente.
+     */
+    public synchronized void onIgnored(Permit permit) {
+        if (permit == Permit.PROBE) {
+            probeInFlight = false;
+        }
+    }
+
+    private synchronized void record(Permit permit, boolean failed) {
+        if (permit == Permit.PROBE) {
+            probeInFlight = false;
+            if (failed) {
+                open();
+            } else {
+                close();
+            }
+            return;
+        }
+        // Llamadas que empezaron antes de abrirse: su resultado ya no decide nada.
+        if (state != State.CLOSED) {
+            return;
+        }
+        if (recorded == window.length) {
+            if (window[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        window[next] = failed;
+        if (failed) {
+            failures++;
+        }
+        next = (next + 1) % window.length;
+        if (recorded >= minimumCalls && failures >= failureRateThreshold * recorded) {
+            open();
+        }
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+        opened.increment();
+        resetWindow();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        resetWindow();
+    }
+
+    private void resetWindow() {
+        recorded = 0;
+        next = 0;
+        failures = 0;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public long getOpenedCount() {
+        return opened.sum();
+    }
+}
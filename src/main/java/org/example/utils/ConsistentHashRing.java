@@ -0,0 +1,44 @@
+package org.example.utils;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Anillo de hash consistente con nodos virtuales. Cada nodo ocupa varias posiciones del anillo para
+ * repartir las claves de forma uniforme; al añadir un nodo al final solo cambian de nodo las claves
+ * que caen en sus nuevas posiciones.
+ */
+public class ConsistentHashRing {
+    private final TreeMap<Long, Integer> ring = new TreeMap<>();
+    private final int nodeCount;
+
+    public ConsistentHashRing(int nodeCount, int virtualNodesPerNode) {
+        if (nodeCount < 1) {
+            throw new IllegalArgumentException("El anillo necesita al menos un nodo.");
+        }
+        this.nodeCount = nodeCount;
+        for (int node = 0; node < nodeCount; node++) {
+            for (int replica = 0; replica < virtualNodesPerNode; replica++) {
+                // Las posiciones no pueden coincidir con mix(id): con mix(replica) los ids < 128 caerían todos en el nodo 0.
+                ring.put(mix(mix(node) + replica), node);
+            }
+        }
+    }
+
+    public int nodeFor(long key) {
+        Map.Entry<Long, Integer> entry = ring.ceilingEntry(mix(key));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    // Finalizador de SplitMix64: ids consecutivos quedan repartidos por todo el anillo.
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
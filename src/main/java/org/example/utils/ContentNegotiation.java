@@ -0,0 +1,133 @@
+package org.example.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.javalin.http.Context;
+import org.example.exceptions.BadRequestException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Negociación de formato para los clientes máquina: además de JSON, las respuestas pueden servirse y
+ * los cuerpos leerse en Smile o CBOR, los formatos binarios de Jackson, con los mismos DTOs.
+ * El formato de respuesta sale de Accept y el de la petición de Content-Type; JSON es el predeterminado.
+ * Las respuestas de error siguen siendo siempre JSON.
+ */
+public class ContentNegotiation {
+
+    public enum Format {
+        JSON("application/json"),
+        SMILE("application/x-jackson-smile"),
+        CBOR("application/cbor");
+
+        private final String mediaType;
+
+        Format(String mediaType) {
+            this.mediaType = mediaType;
+        }
+
+        public String mediaType() {
+            return mediaType;
+        }
+    }
+
+    private final ObjectMapper smileMapper = new ObjectMapper(new SmileFactory()).registerModule(new JavaTimeModule());
+    private final ObjectMapper cborMapper = new ObjectMapper(new CBORFactory()).registerModule(new JavaTimeModule());
+
+    /**
+     * Elige el primer formato aceptado por el cliente, en el orden en que lo declara y omitiendo los q=0.
+     */
+    public Format negotiate(Context ctx) {
+        String accept = ctx.header("Accept");
+        if (accept == null || accept.isBlank()) {
+            return Format.JSON;
+        }
+        for (String range : accept.split(",")) {
+            String[] parts = range.split(";");
+            if (isRejected(parts)) {
+                continue;
+            }
+            String mediaType = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (mediaType.equals(Format.SMILE.mediaType())) {
+                return Format.SMILE;
+            }
+            if (mediaType.equals(Format.CBOR.mediaType())) {
+                return Format.CBOR;
+            }
+            if (mediaType.equals(Format.JSON.mediaType()) || mediaType.equals("application/*") || mediaType.equals("*/*")) {
+                return Format.JSON;
+            }
+        }
+        return Format.JSON;
+    }
+
+    /**
+     * Escribe el cuerpo en el formato negociado. JSON pasa por el JsonMapper configurado en Javalin.
+     */
+    public void respond(Context ctx, Object body) {
+        ctx.header("Vary", "Accept");
+        Format format = negotiate(ctx);
+        if (format == Format.JSON) {
+            ctx.json(body);
+            return;
+        }
+        ctx.contentType(format.mediaType()).result(encode(ctx, format, body));
+    }
+
+    public byte[] encode(Context ctx, Format format, Object body) {
+        return switch (format) {
+            case JSON -> ctx.jsonMapper().toJsonString(body, body.getClass()).getBytes(StandardCharsets.UTF_8);
+            case SMILE -> write(smileMapper, body);
+            case CBOR -> write(cborMapper, body);
+        };
+    }
+
+    public <T> T readBody(Context ctx, Class<T> type) {
+        String contentType = ctx.contentType();
+        String mediaType = contentType != null
+                ? contentType.split(";")[0].trim().toLowerCase(Locale.ROOT)
+                : "";
+        if (mediaType.equals(Format.SMILE.mediaType())) {
+            return read(smileMapper, ctx.bodyAsBytes(), type);
+        }
+        if (mediaType.equals(Format.CBOR.mediaType())) {
+            return read(cborMapper, ctx.bodyAsBytes(), type);
+        }
+        return ctx.bodyAsClass(type);
+    }
+
+    private static boolean isRejected(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2)) <= 0;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static byte[] write(ObjectMapper mapper, Object body) {
+        try {
+            return mapper.writeValueAsBytes(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static <T> T read(ObjectMapper mapper, byte[] body, Class<T> type) {
+        try {
+            return mapper.readValue(body, type);
+        } catch (IOException e) {
+            throw new BadRequestException("Invalid " + mapper.getFactory().getFormatName() + " request body.");
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package org.example.utils;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * AsyncAppender que nunca bloquea al hilo que registra: cuando el buffer está lleno el evento se
+ * descarta y se contabiliza. El conteo es aproximado, porque la cola puede llenarse entre la
+ * comprobación y la inserción.
+ */
+public class CountingAsyncAppender extends AsyncAppender {
+
+    private static final LongAdder droppedEvents = new LongAdder();
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        if (getRemainingCapacity() == 0) {
+            droppedEvents.increment();
+            return;
+        }
+        super.append(event);
+    }
+
+    public static long getDroppedCount() {
+        return droppedEvents.sum();
+    }
+}
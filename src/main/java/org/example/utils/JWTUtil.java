@@ -5,80 +5,207 @@ import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
 import org.example.config.AppConfig;
 import org.example.daos.BlacklistDAO;
+import org.example.dtos.auth.TokenIntrospection;
+import org.example.exceptions.DataAccessException;
+import org.example.metrics.Metrics;
+import org.example.metrics.jfr.JwtVerifyEvent;
 import org.example.models.Role;
 import org.example.models.User;
+import org.example.utils.CircuitBreaker.Permit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.crypto.SecretKey;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
 import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Base64;
 import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 
 public class JWTUtil {
 
+    private static final Logger logger = LoggerFactory.getLogger(JWTUtil.class);
+
+    // Un token inválido por petición no debe convertirse en una línea de log por petición.
+    private static final RateLimitedLogger rateLimitedLogger = new RateLimitedLogger(logger, Duration.ofSeconds(10));
+
     private static final SecretKey SECRET_KEY = Keys.hmacShaKeyFor(Base64.getDecoder().decode(AppConfig.getJwtSecretKey()));
 
+    // El parser es inmutable y seguro entre hilos: se construye una sola vez.
+    private static final JwtParser parser = Jwts.parserBuilder().setSigningKey(SECRET_KEY).build();
+
+    private static final JwtMinter minter = new JwtMinter(SECRET_KEY);
+
     private static final long EXPIRATION_TIME = 24 * 60 * 60 * 1000; // 24 horas
     
     private static final BlacklistDAO blacklistDAO = new BlacklistDAO();
 
+    private static final TokenRevocationQueue revocationQueue = new TokenRevocationQueue(
+            blacklistDAO, AppConfig.getBlacklistQueueCapacity(), AppConfig.getBlacklistBatchSize());
+
+    // Tokens que la base de datos dio por no revocados hace poco: se aceptan mientras el circuito está abierto.
+    private static final Map<String, Long> recentlyVerified = new ConcurrentHashMap<>();
+    private static final int RECENTLY_VERIFIED_MAX_ENTRIES = 10000;
+    private static final long RECENTLY_VERIFIED_TTL_NANOS = TimeUnit.MILLISECONDS.toNanos(AppConfig.getRevocationNegativeCacheMillis());
+    private static final LongAdder revocationFallbacks = new LongAdder();
+
+    private static volatile CircuitBreaker revocationBreaker;
+
+    static {
+        Metrics.register("revocation.fallbacks", revocationFallbacks::sum);
+    }
+
     public static String generateToken(User user) {
+        return generateToken(user, Duration.ofMillis(EXPIRATION_TIME));
+    }
+
+    /**
+     * Token con una vida distinta de la habitual, por ejemplo uno de corta duración para el calentamiento.
+     */
+    public static String generateToken(User user, Duration timeToLive) {
         if (user == null || user.getEmail() == null || user.getEmail().trim().isEmpty()) {
             throw new IllegalArgumentException("User details cannot be null or empty for token generation.");
         }
-        Date now = new Date();
-        Date expirationDate = new Date(now.getTime() + EXPIRATION_TIME);
-
-        return Jwts.builder()
-                .setSubject(String.valueOf(user.getId()))
-                .claim("email", user.getEmail())
-                .claim("role", user.getRole().name())
-                .setIssuedAt(now)
-                .setExpiration(expirationDate)
-                .signWith(SECRET_KEY)
-                .compact();
+        // Mismos claims y misma precisión (segundos) que Jwts.builder() con setIssuedAt/setExpiration.
+        long nowMillis = System.currentTimeMillis();
+        return minter.mint(
+                user.getId(),
+                user.getEmail(),
+                user.getRole().name(),
+                nowMillis / 1000,
+                (nowMillis + timeToLive.toMillis()) / 1000);
     }
 
     public static Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(SECRET_KEY)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
+    }
+
+    /**
+     * Verifica firma, expiración y revocación en un solo análisis del token.
+     * @return los claims del token, o null si no es válido.
+     */
+    public static Claims validateAndExtractClaims(String token) {
+        Claims claims = parseValidClaims(token);
+        if (claims == null || isTokenBlacklisted(token)) {
+            return null;
+        }
+        return claims;
+    }
+
+    /**
+     * Introspección de varios tokens: cada uno se verifica con el parser compartido y la revocación
+     * se comprueba con una sola consulta para todo el lote, detrás del mismo cortocircuito que la de
+     * cada petición. Los resultados siguen el orden recibido.
+     */
+    public static List<TokenIntrospection> introspect(List<String> tokens) {
+        List<Claims> parsedClaims = new ArrayList<>(tokens.size());
+        Set<String> pendingRevocationCheck = new LinkedHashSet<>();
+        for (String token : tokens) {
+            Claims claims = parseValidClaims(token);
+            if (claims != null && revocationQueue.isRevokedLocally(token)) {
+                claims = null;
+            }
+            parsedClaims.add(claims);
+            if (claims != null) {
+                pendingRevocationCheck.add(token);
+            }
+        }
+
+        Set<String> revoked = findRevoked(pendingRevocationCheck, () -> blacklistDAO.findRevoked(pendingRevocationCheck));
+        List<TokenIntrospection> results = new ArrayList<>(tokens.size());
+        for (int i = 0; i < tokens.size(); i++) {
+            Claims claims = parsedClaims.get(i);
+            if (claims == null || revoked.contains(tokens.get(i))) {
+                results.add(TokenIntrospection.INACTIVE);
+            } else {
+                results.add(new TokenIntrospection(
+                        true,
+                        claims.getSubject(),
+                        claims.get("email", String.class),
+                        claims.get("role", String.class),
+                        claims.getIssuedAt() != null ? claims.getIssuedAt().getTime() / 1000 : null,
+                        claims.getExpiration() != null ? claims.getExpiration().getTime() / 1000 : null
+                ));
+            }
+        }
+        return results;
     }
     
     public static Integer extractUserId(String token) {
         try {
-            return Integer.parseInt(extractAllClaims(token).getSubject());
-        } catch (JwtException | NumberFormatException e) {
+            return extractUserId(extractAllClaims(token));
+        } catch (JwtException e) {
+            return null;
+        }
+    }
+
+    public static Integer extractUserId(Claims claims) {
+        try {
+            return Integer.parseInt(claims.getSubject());
+        } catch (NumberFormatException e) {
             return null;
         }
     }
 
     public static Role extractUserRole(String token) {
         try {
-            String roleStr = extractAllClaims(token).get("role", String.class);
+            return extractUserRole(extractAllClaims(token));
+        } catch (JwtException e) {
+            return null;
+        }
+    }
+
+    public static Role extractUserRole(Claims claims) {
+        try {
+            String roleStr = claims.get("role", String.class);
             return Role.valueOf(roleStr);
-        } catch (JwtException | IllegalArgumentException e) {
+        } catch (IllegalArgumentException | NullPointerException | RequiredTypeException e) {
             return null;
         }
     }
 
     public static boolean isTokenValid(String token) {
+        return validateAndExtractClaims(token) != null;
+    }
+
+    private static Claims parseValidClaims(String token) {
         if (token == null || token.trim().isEmpty()) {
-            return false;
+            return null;
         }
+        JwtVerifyEvent event = new JwtVerifyEvent();
+        event.begin();
+        Claims claims = verifySignature(token);
+        event.end();
+        if (event.shouldCommit()) {
+            event.requestId = RequestContext.getRequestId();
+            event.valid = claims != null;
+            event.commit();
+        }
+        return claims;
+    }
+
+    private static Claims verifySignature(String token) {
         try {
-            Jwts.parserBuilder().setSigningKey(SECRET_KEY).build().parseClaimsJws(token);
-            return !isTokenBlacklisted(token);
+            return parser.parseClaimsJws(token).getBody();
         } catch (ExpiredJwtException e) {
-            System.err.println("JWT token is expired: " + e.getMessage());
-            return false;
+            rateLimitedLogger.warn("jwt.expired", "JWT token is expired: {}", e.getMessage());
+            return null;
         } catch (SignatureException e) {
-            System.err.println("Invalid JWT signature: " + e.getMessage());
-            return false;
+            rateLimitedLogger.warn("jwt.signature", "Invalid JWT signature: {}", e.getMessage());
+            return null;
         } catch (JwtException e) {
-            System.err.println("Invalid JWT token: " + e.getMessage());
-            return false;
+            rateLimitedLogger.warn("jwt.invalid", "Invalid JWT token: {}", e.getMessage());
+            return null;
         }
     }
 
@@ -87,16 +214,99 @@ public class JWTUtil {
     public static void blacklistToken(String token) {
         if (token != null && !token.trim().isEmpty()) {
             try {
-                Date expiration = extractAllClaims(token).getExpiration();
-                blacklistDAO.save(token, new Timestamp(expiration.getTime()));
+                blacklistToken(token, extractAllClaims(token));
             } catch (JwtException e) {
-                System.err.println("Attempted to blacklist an invalid token: " + e.getMessage());
+                rateLimitedLogger.warn("jwt.blacklist-invalid", "Attempted to blacklist an invalid token: {}", e.getMessage());
             }
         }
     }
 
+    /**
+     * Revoca un token cuyos claims ya se validaron (por ejemplo, en AuthMiddleware) sin volver a analizarlo.
+     */
+    public static void blacklistToken(String token, Claims claims) {
+        Date expiration = claims.getExpiration();
+        revocationQueue.revoke(token, new Timestamp(expiration.getTime()));
+        recentlyVerified.remove(token);
+    }
+
+    /**
+     * Pone la consulta de revocación detrás del cortocircuito indicado; con null se consulta siempre la base de datos.
+     */
+    public static void setRevocationBreaker(CircuitBreaker breaker) {
+        revocationBreaker = breaker;
+        recentlyVerified.clear();
+    }
+
     private static boolean isTokenBlacklisted(String token) {
-        return blacklistDAO.exists(token);
+        if (revocationQueue.isRevokedLocally(token)) {
+            return true;
+        }
+        return findRevoked(Set.of(token), () -> blacklistDAO.exists(token) ? Set.of(token) : Set.of()).contains(token);
+    }
+
+    /**
+     * Consulta la revocación de los tokens detrás del cortocircuito, tanto para un token como para un lote.
+     * @param lookup la consulta a la base de datos; devuelve los tokens revocados.
+     */
+    private static Set<String> findRevoked(Set<String> tokens, Supplier<Set<String>> lookup) {
+        CircuitBreaker breaker = revocationBreaker;
+        if (breaker == null || tokens.isEmpty()) {
+            return lookup.get();
+        }
+        Permit permit = breaker.tryAcquire();
+        if (permit == Permit.REJECTED) {
+            return revokedWhileUnavailable(tokens, breaker, null);
+        }
+        long start = System.nanoTime();
+        Set<String> revoked;
+        try {
+            revoked = lookup.get();
+        } catch (DataAccessException e) {
+            // Si venció el plazo de la petición, el fallo no dice nada de la base de datos.
+            if (e.getCause() instanceof SQLTimeoutException && RequestContext.isDeadlineExceeded()) {
+                breaker.onIgnored(permit);
+                throw e;
+            }
+            breaker.onFailure(permit);
+            return revokedWhileUnavailable(tokens, breaker, e);
+        }
+        breaker.onSuccess(permit, System.nanoTime() - start);
+        long now = System.nanoTime();
+        for (String token : tokens) {
+            if (!revoked.contains(token)) {
+                // Al llenarse se vacía: solo cubre los tokens en uso durante un corte breve.
+                if (recentlyVerified.size() >= RECENTLY_VERIFIED_MAX_ENTRIES) {
+                    recentlyVerified.clear();
+                }
+                recentlyVerified.put(token, now);
+            }
+        }
+        return revoked;
+    }
+
+    // Sin base de datos solo se aceptan los tokens verificados hace poco; si alguno no lo está, se propaga el error.
+    private static Set<String> revokedWhileUnavailable(Set<String> tokens, CircuitBreaker breaker, DataAccessException failure) {
+        long now = System.nanoTime();
+        for (String token : tokens) {
+            Long verifiedAt = recentlyVerified.get(token);
+            if (verifiedAt == null || now - verifiedAt >= RECENTLY_VERIFIED_TTL_NANOS) {
+                if (failure != null) {
+                    throw failure;
+                }
+                throw new DataAccessException("Comprobación de revocación no disponible temporalmente.",
+                        new SQLTransientConnectionException("Circuit breaker " + breaker.getName() + " is open"));
+            }
+        }
+        revocationFallbacks.add(tokens.size());
+        return Set.of();
+    }
+
+    /**
+     * Vuelca a la base de datos las revocaciones que sigan en cola. Debe llamarse antes de cerrar el pool.
+     */
+    public static void shutdown() {
+        revocationQueue.close(5000);
     }
 
     public static String extractTokenFromHeader(String authHeader) {
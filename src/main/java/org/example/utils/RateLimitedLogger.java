@@ -0,0 +1,60 @@
+package org.example.utils;
+
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limita los mensajes de log por clave: como mucho uno por intervalo. Los mensajes suprimidos se
+ * cuentan y el total se añade al siguiente mensaje que sí se registra.
+ * Las claves deben ser un conjunto pequeño y fijo (p. ej. "jwt.expired"), nunca datos de la petición.
+ */
+public class RateLimitedLogger {
+
+    private final Logger logger;
+    private final long intervalNanos;
+    private final ConcurrentHashMap<String, Window> windows = new ConcurrentHashMap<>();
+
+    public RateLimitedLogger(Logger logger, Duration interval) {
+        this.logger = logger;
+        this.intervalNanos = interval.toNanos();
+    }
+
+    public void warn(String key, String format, Object... args) {
+        if (!logger.isWarnEnabled()) {
+            return;
+        }
+        long suppressed = windows.computeIfAbsent(key, k -> new Window()).tryAcquire(System.nanoTime());
+        if (suppressed < 0) {
+            return;
+        }
+        if (suppressed == 0) {
+            logger.warn(format, args);
+        } else {
+            Object[] withCount = Arrays.copyOf(args, args.length + 1);
+            withCount[args.length] = suppressed;
+            logger.warn(format + " ({} mensajes similares suprimidos)", withCount);
+        }
+    }
+
+    private class Window {
+        private final AtomicLong nextAllowed = new AtomicLong(Long.MIN_VALUE);
+        private final LongAdder suppressed = new LongAdder();
+
+        /**
+         * @return el número de mensajes suprimidos desde el último registrado, o -1 si este también debe suprimirse.
+         */
+        long tryAcquire(long now) {
+            long next = nextAllowed.get();
+            if ((next == Long.MIN_VALUE || now - next >= 0) && nextAllowed.compareAndSet(next, now + intervalNanos)) {
+                return suppressed.sumThenReset();
+            }
+            suppressed.increment();
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.utils;
+
+/**
+ * Datos de la petición en curso accesibles desde capas que no reciben el Context de Javalin
+ * (DAOs, utilidades). Cada petición se atiende entera en un hilo; el middleware lo limpia al terminar.
+ */
+public class RequestContext {
+    private static final ThreadLocal<String> requestId = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> stale = new ThreadLocal<>();
+    private static final ThreadLocal<Long> deadline = new ThreadLocal<>();
+
+    public static void setRequestId(String id) {
+        requestId.set(id);
+    }
+
+    /**
+     * @return el id de correlación de la petición en curso, o null fuera de una petición.
+     */
+    public static String getRequestId() {
+        return requestId.get();
+    }
+
+    /**
+     * Marca que la respuesta en curso se construyó con datos de respaldo que pueden estar desactualizados.
+     */
+    public static void markStale() {
+        stale.set(Boolean.TRUE);
+    }
+
+    public static boolean isStale() {
+        return stale.get() != null;
+    }
+
+    /**
+     * @param deadlineNanos instante, en la escala de System.nanoTime(), en que vence la petición; null si no tiene plazo.
+     */
+    public static void setDeadline(Long deadlineNanos) {
+        if (deadlineNanos == null) {
+            deadline.remove();
+        } else {
+            deadline.set(deadlineNanos);
+        }
+    }
+
+    public static Long getDeadline() {
+        return deadline.get();
+    }
+
+    /**
+     * @return nanosegundos que le quedan a la petición en curso (negativo si ya venció), o Long.MAX_VALUE sin plazo.
+     */
+    public static long remainingNanos() {
+        Long deadlineNanos = deadline.get();
+        return deadlineNanos == null ? Long.MAX_VALUE : deadlineNanos - System.nanoTime();
+    }
+
+    public static boolean isDeadlineExceeded() {
+        return remainingNanos() <= 0;
+    }
+
+    public static void clear() {
+        requestId.remove();
+        stale.remove();
+        deadline.remove();
+    }
+}
@@ -0,0 +1,101 @@
+package org.example.utils;
+
+import io.javalin.http.ContentType;
+import io.javalin.http.Context;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Caché de cuerpos de respuesta ya serializados, en crudo y comprimidos con gzip.
+ * Cada entrada guarda la generación en la que se calculó: invalidate() sube la generación, así que
+ * un cuerpo calculado mientras se invalidaba nunca se sirve. El TTL cubre los cambios hechos por
+ * otras instancias o directamente en la base de datos.
+ */
+public class SerializedResponseCache {
+
+    private record Entry(byte[] body, byte[] gzipBody, long generation, long expiresAt) {
+    }
+
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    public SerializedResponseCache(long ttlMillis, int maxEntries) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Escribe la respuesta JSON cacheada para la clave, calculándola con el loader si no hay una vigente.
+     * Si el cliente acepta gzip se envían los bytes ya comprimidos.
+     */
+    public void respond(Context ctx, String key, Supplier<byte[]> loader) {
+        respond(ctx, key, ContentType.APPLICATION_JSON.getMimeType(), loader);
+    }
+
+    /**
+     * Igual que respond(ctx, key, loader) para cuerpos en otro formato; la clave debe incluir el formato.
+     */
+    public void respond(Context ctx, String key, String contentType, Supplier<byte[]> loader) {
+        Entry entry = entries.get(key);
+        long now = System.nanoTime();
+        if (entry == null || entry.generation() != generation.get() || now - entry.expiresAt() >= 0) {
+            long currentGeneration = generation.get();
+            byte[] body = loader.get();
+            entry = new Entry(body, gzip(body), currentGeneration, now + ttlNanos);
+            // Un cuerpo hecho con datos de respaldo no se guarda: se serviría sin la marca de obsoleto.
+            if (!RequestContext.isStale()) {
+                if (entries.size() >= maxEntries) {
+                    entries.clear();
+                }
+                entries.put(key, entry);
+            }
+        }
+
+        ctx.header("Vary", "Accept, Accept-Encoding");
+        ctx.contentType(contentType);
+        if (acceptsGzip(ctx.header("Accept-Encoding"))) {
+            // Con Content-Encoding ya presente, Javalin no vuelve a comprimir la respuesta.
+            ctx.header("Content-Encoding", "gzip").result(entry.gzipBody());
+        } else {
+            ctx.result(entry.body());
+        }
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").equals("q=0");
+            }
+        }
+        return false;
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+}
@@ -0,0 +1,39 @@
+package org.example.utils;
+
+import io.javalin.http.Context;
+import org.eclipse.jetty.server.HttpChannel;
+import org.eclipse.jetty.server.Request;
+
+/**
+ * Control de la conexión de Jetty durante una respuesta larga enviada en streaming, para que los
+ * controladores no dependan de las clases internas del servidor. Mientras está abierto, la conexión
+ * se corta si el cliente deja de leer durante el tiempo indicado; close() restaura el de antes.
+ */
+public class StreamingResponse implements AutoCloseable {
+
+    private final HttpChannel channel;
+    private final long previousIdleTimeout;
+
+    private StreamingResponse(HttpChannel channel, long idleTimeoutMillis) {
+        this.channel = channel;
+        this.previousIdleTimeout = channel.getIdleTimeout();
+        channel.setIdleTimeout(idleTimeoutMillis);
+    }
+
+    public static StreamingResponse withIdleTimeout(Context ctx, long idleTimeoutMillis) {
+        return new StreamingResponse(Request.getBaseRequest(ctx.req()).getHttpChannel(), idleTimeoutMillis);
+    }
+
+    /**
+     * Corta la conexión sin terminar la respuesta. Es la única señal de error posible una vez
+     * enviada parte del cuerpo: el cliente ve una transferencia incompleta.
+     */
+    public void abort(Throwable failure) {
+        channel.abort(failure);
+    }
+
+    @Override
+    public void close() {
+        channel.setIdleTimeout(previousIdleTimeout);
+    }
+}
@@ -0,0 +1,166 @@
+package org.example.utils;
+
+import org.example.daos.BlacklistDAO;
+import org.example.metrics.Metrics;
+import org.example.models.RevokedToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Revocación de tokens con escritura diferida. El token entra primero en un conjunto en memoria,
+ * por lo que la revocación es inmediata en esta instancia, y después en una cola acotada que un
+ * hilo en segundo plano vuelca a jwt_blacklist en lotes, una transacción por lote.
+ * Si la cola está llena, el token se guarda de forma síncrona para no perder ninguna revocación.
+ */
+public class TokenRevocationQueue {
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationQueue.class);
+
+    private static final long RETRY_DELAY_MILLIS = 1000;
+    private static final long PRUNE_INTERVAL_MILLIS = 60_000;
+
+    private final BlacklistDAO blacklistDAO;
+    private final int batchSize;
+    private final BlockingQueue<RevokedToken> queue;
+    private final ConcurrentHashMap<String, Long> revokedTokens = new ConcurrentHashMap<>();
+    private final Thread writer;
+    private volatile boolean running = true;
+    // Los revoke comparten el cerrojo de lectura; close toma el de escritura para que ningún token
+    // entre en la cola después de que el escritor haya visto running = false y la cola vacía.
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+
+    private final LongAdder flushedTokens = new LongAdder();
+    private final LongAdder flushedBatches = new LongAdder();
+    private final LongAdder synchronousFallbacks = new LongAdder();
+    private final AtomicLong lastFlushMillis = new AtomicLong();
+    private final AtomicLong maxFlushMillis = new AtomicLong();
+
+    public TokenRevocationQueue(BlacklistDAO blacklistDAO, int capacity, int batchSize) {
+        this.blacklistDAO = blacklistDAO;
+        this.batchSize = batchSize;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.writer = new Thread(this::runWriter, "blacklist-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+
+        Metrics.register("blacklist.queue.depth", queue::size);
+        Metrics.register("blacklist.queue.capacity", () -> capacity);
+        Metrics.register("blacklist.revoked.inMemory", revokedTokens::size);
+        Metrics.register("blacklist.flush.tokens", flushedTokens::sum);
+        Metrics.register("blacklist.flush.batches", flushedBatches::sum);
+        Metrics.register("blacklist.flush.lastMillis", lastFlushMillis::get);
+        Metrics.register("blacklist.flush.maxMillis", maxFlushMillis::get);
+        Metrics.register("blacklist.synchronousFallbacks", synchronousFallbacks::sum);
+    }
+
+    public void revoke(String token, Timestamp expiryDate) {
+        revokedTokens.put(token, expiryDate.getTime());
+        RevokedToken revokedToken = new RevokedToken(token, expiryDate);
+        boolean queued;
+        closeLock.readLock().lock();
+        try {
+            queued = running && queue.offer(revokedToken);
+        } finally {
+            closeLock.readLock().unlock();
+        }
+        if (!queued) {
+            synchronousFallbacks.increment();
+            blacklistDAO.save(token, expiryDate);
+        }
+    }
+
+    /**
+     * Solo conoce los tokens revocados en esta instancia; la base de datos sigue siendo la fuente completa.
+     */
+    public boolean isRevokedLocally(String token) {
+        Long expiry = revokedTokens.get(token);
+        return expiry != null && expiry > System.currentTimeMillis();
+    }
+
+    /**
+     * Deja de aceptar tokens en la cola y espera a que el hilo escritor vuelque los pendientes.
+     */
+    public void close(long timeoutMillis) {
+        // Sin interrupt(): interrumpir al escritor haría fallar la obtención de conexión de Hikari.
+        closeLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+        try {
+            writer.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            logger.error("{} revocaciones no llegaron a persistirse en jwt_blacklist", queue.size());
+        }
+    }
+
+    private void runWriter() {
+        long nextPrune = System.currentTimeMillis() + PRUNE_INTERVAL_MILLIS;
+        List<RevokedToken> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty() || !batch.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    RevokedToken first = running ? queue.poll(1, TimeUnit.SECONDS) : queue.poll();
+                    if (first != null) {
+                        batch.add(first);
+                        queue.drainTo(batch, batchSize - 1);
+                    }
+                }
+                if (!batch.isEmpty() && flush(batch)) {
+                    batch.clear();
+                } else if (!batch.isEmpty()) {
+                    if (!running) {
+                        // Al apagar no reintentamos indefinidamente contra una base de datos caída.
+                        logger.error("Se descartan {} revocaciones pendientes al cerrar", batch.size() + queue.size());
+                        queue.clear();
+                        return;
+                    }
+                    Thread.sleep(RETRY_DELAY_MILLIS);
+                }
+                if (System.currentTimeMillis() >= nextPrune) {
+                    pruneExpired();
+                    nextPrune = System.currentTimeMillis() + PRUNE_INTERVAL_MILLIS;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private boolean flush(List<RevokedToken> batch) {
+        long start = System.nanoTime();
+        try {
+            blacklistDAO.saveAll(batch);
+        } catch (RuntimeException e) {
+            logger.warn("No se pudo volcar un lote de {} revocaciones: {}", batch.size(), e.getMessage());
+            return false;
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        lastFlushMillis.set(elapsedMillis);
+        maxFlushMillis.accumulateAndGet(elapsedMillis, Math::max);
+        flushedTokens.add(batch.size());
+        flushedBatches.increment();
+        return true;
+    }
+
+    private void pruneExpired() {
+        long now = System.currentTimeMillis();
+        revokedTokens.values().removeIf(expiry -> expiry <= now);
+    }
+}
@@ -3,22 +3,52 @@ package org.example;
 import at.favre.lib.crypto.bcrypt.BCrypt;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import io.javalin.Javalin;
+import io.jsonwebtoken.Claims;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.example.config.AppConfig;
 import org.example.config.DatabaseConfig;
+import org.example.config.WorkloadClass;
+import org.example.daos.BlacklistDAO;
+import org.example.metrics.jfr.BlacklistQueryEvent;
+import org.example.metrics.jfr.PoolAcquireEvent;
+import org.example.middlewares.DeadlineMiddleware;
+import org.example.middlewares.RequestIdMiddleware;
+import org.example.models.Role;
+import org.example.models.User;
+import org.example.utils.JWTUtil;
+import org.example.utils.RequestContext;
 import org.junit.jupiter.api.*;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.Connection;
+import java.sql.DriverManager;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 public class ApiIntegrationTest {
@@ -27,6 +57,7 @@ public class ApiIntegrationTest {
     private static final String BASE_URL = "http://localhost:8080";
     private static HttpClient client;
     private static ObjectMapper objectMapper;
+    private static long appStartMillis;
 
     private record TestResponse(int statusCode, String body) {}
 
@@ -34,6 +65,7 @@ public class ApiIntegrationTest {
     public void setupAll() {
         Main.isTesting = true;
         DatabaseConfig.init();
+        appStartMillis = System.currentTimeMillis();
         app = Main.configureAndStartApp();
         client = HttpClient.newHttpClient();
         objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
@@ -60,6 +92,7 @@ public class ApiIntegrationTest {
             stmt.execute("SET FOREIGN_KEY_CHECKS = 0;");
             stmt.execute("TRUNCATE TABLE users;");
             stmt.execute("TRUNCATE TABLE jwt_blacklist;");
+            stmt.execute("TRUNCATE TABLE auth_audit;");
             stmt.execute("SET FOREIGN_KEY_CHECKS = 1;");
 
             // Insertamos el admin con el hash recién generado
@@ -139,6 +172,376 @@ public class ApiIntegrationTest {
         assertThat(profileResponse.statusCode).isEqualTo(401);
     }
     
+    @Test
+    @DisplayName("6. Admin debe poder resolver varios usuarios en una sola petición")
+    void adminCanGetUsersByIds() throws IOException, InterruptedException {
+        String adminToken = getAdminToken();
+        makeRequest("POST", "/api/users/register", "{\"firstName\": \"Batch\", \"lastName\": \"Test\", \"email\": \"batch@test.com\", \"password\": \"pass\", \"confirmPassword\": \"pass\"}", adminToken);
+
+        TestResponse response = makeRequest("GET", "/api/users?ids=2,1,999", null, adminToken);
+
+        assertThat(response.statusCode).isEqualTo(200);
+        JsonNode data = objectMapper.readTree(response.body).get("data");
+        assertThat(data).hasSize(2);
+        assertThat(data.get(0).get("email").asText()).isEqualTo("batch@test.com");
+        assertThat(data.get(1).get("email").asText()).isEqualTo("admin@system.com");
+
+        TestResponse invalid = makeRequest("GET", "/api/users?ids=1,abc", null, adminToken);
+        assertThat(invalid.statusCode).isEqualTo(400);
+    }
+
+    @Test
+    @DisplayName("7. Cada petición autenticada debe consultar la blacklist una sola vez")
+    void authenticationRunsOncePerRequest() throws IOException, InterruptedException {
+        String adminToken = getAdminToken();
+
+        for (String path : new String[]{"/api/users", "/api/users/profile", "/api/users/1"}) {
+            long lookupsBefore = BlacklistDAO.getLookupCount();
+            TestResponse response = makeRequest("GET", path, null, adminToken);
+
+            assertThat(response.statusCode).isEqualTo(200);
+            assertThat(BlacklistDAO.getLookupCount() - lookupsBefore)
+                .withFailMessage("GET %s consultó la blacklist %s veces", path, BlacklistDAO.getLookupCount() - lookupsBefore)
+                .isEqualTo(1);
+        }
+
+        String newWaiterBody = "{\"firstName\": \"Once\", \"lastName\": \"Only\", \"email\": \"once@test.com\", \"password\": \"pass\", \"confirmPassword\": \"pass\"}";
+        long lookupsBefore = BlacklistDAO.getLookupCount();
+        TestResponse registerResponse = makeRequest("POST", "/api/users/register", newWaiterBody, adminToken);
+        assertThat(registerResponse.statusCode).isEqualTo(201);
+        assertThat(BlacklistDAO.getLookupCount() - lookupsBefore).isEqualTo(1);
+
+        String waiterToken = getUserToken("once@test.com", "pass");
+        lookupsBefore = BlacklistDAO.getLookupCount();
+        TestResponse logoutResponse = makeRequest("POST", "/api/auth/logout", null, waiterToken);
+        assertThat(logoutResponse.statusCode).isEqualTo(200);
+        assertThat(BlacklistDAO.getLookupCount() - lookupsBefore)
+            .withFailMessage("El logout consultó la blacklist %s veces", BlacklistDAO.getLookupCount() - lookupsBefore)
+            .isEqualTo(1);
+        assertThat(makeRequest("GET", "/api/users/profile", null, waiterToken).statusCode).isEqualTo(401);
+    }
+
+    @Test
+    @DisplayName("8. La introspección debe validar varios tokens en una sola petición")
+    void introspectReportsActiveAndRevokedTokens() throws IOException, InterruptedException {
+        String adminToken = getAdminToken();
+        makeRequest("POST", "/api/users/register", "{\"firstName\": \"Intro\", \"lastName\": \"Spect\", \"email\": \"intro@test.com\", \"password\": \"pass\", \"confirmPassword\": \"pass\"}", adminToken);
+        String waiterToken = getUserToken("intro@test.com", "pass");
+        makeRequest("POST", "/api/auth/logout", null, waiterToken);
+
+        String body = String.format("{\"tokens\": [\"%s\", \"%s\", \"not-a-token\"]}", adminToken, waiterToken);
+        TestResponse response = makeRequest("POST", "/api/auth/introspect", body, adminToken);
+
+        assertThat(response.statusCode).isEqualTo(200);
+        JsonNode data = objectMapper.readTree(response.body).get("data");
+        assertThat(data).hasSize(3);
+        assertThat(data.get(0).get("active").asBoolean()).isTrue();
+        assertThat(data.get(0).get("email").asText()).isEqualTo("admin@system.com");
+        assertThat(data.get(1).get("active").asBoolean()).isFalse();
+        assertThat(data.get(2).get("active").asBoolean()).isFalse();
+    }
+
+    @Test
+    @DisplayName("9. Registrar un email ya existente debe devolver 400")
+    void duplicateRegistrationIsRejected() throws IOException, InterruptedException {
+        String adminToken = getAdminToken();
+        String body = "{\"firstName\": \"Dup\", \"lastName\": \"Licate\", \"email\": \"dup@test.com\", \"password\": \"pass\", \"confirmPassword\": \"pass\"}";
+        assertThat(makeRequest("POST", "/api/users/register", body, adminToken).statusCode).isEqualTo(201);
+
+        TestResponse response = makeRequest("POST", "/api/users/register", body.replace("dup@test.com", "DUP@test.com"), adminToken);
+
+        assertThat(response.statusCode).isEqualTo(400);
+        assertThat(objectMapper.readTree(response.body).get("message").asText()).contains("already in use");
+    }
+
+    @Test
+    @DisplayName("10. Los clientes máquina deben poder pedir las respuestas en Smile")
+    void usersCanBeServedAsSmile() throws IOException, InterruptedException {
+        String adminToken = getAdminToken();
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(BASE_URL + "/api/users/1"))
+                .header("Authorization", "Bearer " + adminToken)
+                .header("Accept", "application/x-jackson-smile")
+                .GET()
+                .build();
+
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue("Content-Type")).hasValueSatisfying(type -> assertThat(type).startsWith("application/x-jackson-smile"));
+        JsonNode data = new ObjectMapper(new SmileFactory()).readTree(response.body()).get("data");
+        assertThat(data.get("email").asText()).isEqualTo("admin@system.com");
+    }
+
+    @Test
+    @DisplayName("11. Las estadísticas deben reflejar cada alta sin recargar la tabla")
+    void statsCountNewRegistrations() throws IOException, InterruptedException {
+        String adminToken = getAdminToken();
+        JsonNode before = objectMapper.readTree(makeRequest("GET", "/api/users/stats", null, adminToken).body).get("data");
+
+        makeRequest("POST", "/api/users/register", "{\"firstName\": \"Stats\", \"lastName\": \"Test\", \"email\": \"stats@test.com\", \"password\": \"pass\", \"confirmPassword\": \"pass\"}", adminToken);
+        TestResponse response = makeRequest("GET", "/api/users/stats", null, adminToken);
+
+        assertThat(response.statusCode).isEqualTo(200);
+        JsonNode after = objectMapper.readTree(response.body).get("data");
+        assertThat(after.at("/byRole/WAITER").asLong()).isEqualTo(before.at("/byRole/WAITER").asLong() + 1);
+        assertThat(after.get("registeredLastHour").asLong()).isEqualTo(before.get("registeredLastHour").asLong() + 1);
+    }
+
+    @Test
+    @DisplayName("12. Los logins y logouts deben quedar registrados en auth_audit")
+    void authenticationEventsAreAudited() throws IOException, InterruptedException, SQLException {
+        String adminToken = getAdminToken();
+        TestResponse registered = makeRequest("POST", "/api/users/register", "{\"firstName\": \"Audit\", \"lastName\": \"Trail\", \"email\": \"audit@test.com\", \"password\": \"pass\", \"confirmPassword\": \"pass\"}", adminToken);
+        int waiterId = objectMapper.readTree(registered.body).at("/data/id").asInt();
+
+        TestResponse missingPassword = makeRequest("POST", "/api/auth/login", "{\"email\": \"audit@test.com\", \"password\": \" \"}", null);
+        assertThat(missingPassword.statusCode).isEqualTo(400);
+        TestResponse failedLogin = makeRequest("POST", "/api/auth/login", "{\"email\": \"audit@test.com\", \"password\": \"wrong\"}", null);
+        assertThat(failedLogin.statusCode).isEqualTo(401);
+        String waiterToken = getUserToken("audit@test.com", "pass");
+        makeRequest("POST", "/api/auth/logout", null, waiterToken);
+
+        // La auditoría se escribe en segundo plano.
+        List<String> events = List.of();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (events.size() < 4 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+            events = auditEventsFor(waiterId, "audit@test.com");
+        }
+        assertThat(events).containsExactly("LOGIN_FAILURE", "LOGIN_FAILURE", "LOGIN_SUCCESS", "LOGOUT");
+    }
+
+    @Test
+    @DisplayName("13. Una petición con el plazo agotado debe responder 504 sin consultar la base de datos")
+    void expiredDeadlineReturnsGatewayTimeout() throws IOException, InterruptedException {
+        String adminToken = getAdminToken();
+
+        HttpRequest.Builder request = HttpRequest.newBuilder()
+                .uri(URI.create(BASE_URL + "/api/users/1"))
+                .header("Authorization", "Bearer " + adminToken)
+                .GET();
+        long lookupsBefore = BlacklistDAO.getLookupCount();
+        HttpResponse<String> expired = client.send(request.copy().header(DeadlineMiddleware.HEADER, "0").build(), HttpResponse.BodyHandlers.ofString());
+        assertThat(expired.statusCode()).isEqualTo(504);
+        // El plazo se comprueba antes de autenticar: ni siquiera se consulta la blacklist.
+        assertThat(BlacklistDAO.getLookupCount()).isEqualTo(lookupsBefore);
+
+        HttpResponse<String> withinBudget = client.send(request.copy().header(DeadlineMiddleware.HEADER, "5000").build(), HttpResponse.BodyHandlers.ofString());
+        assertThat(withinBudget.statusCode()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("14. La lista de usuarios cacheada se invalida al registrar y se sirve en crudo o con gzip")
+    void cachedUserListIsInvalidatedAndServedRawOrGzipped() throws IOException, InterruptedException {
+        String adminToken = getAdminToken();
+        assertThat(objectMapper.readTree(makeRequest("GET", "/api/users", null, adminToken).body).get("data")).hasSize(1);
+
+        makeRequest("POST", "/api/users/register", "{\"firstName\": \"Cache\", \"lastName\": \"Miss\", \"email\": \"cache@test.com\", \"password\": \"pass\", \"confirmPassword\": \"pass\"}", adminToken);
+
+        HttpRequest.Builder request = HttpRequest.newBuilder()
+                .uri(URI.create(BASE_URL + "/api/users"))
+                .header("Authorization", "Bearer " + adminToken)
+                .GET();
+        HttpResponse<byte[]> raw = client.send(request.copy().build(), HttpResponse.BodyHandlers.ofByteArray());
+        HttpResponse<byte[]> gzipped = client.send(request.copy().header("Accept-Encoding", "gzip").build(), HttpResponse.BodyHandlers.ofByteArray());
+
+        assertThat(raw.statusCode()).isEqualTo(200);
+        assertThat(raw.headers().firstValue("Content-Encoding")).isEmpty();
+        assertThat(objectMapper.readTree(raw.body()).get("data")).hasSize(2);
+        assertThat(gzipped.statusCode()).isEqualTo(200);
+        assertThat(gzipped.headers().firstValue("Content-Encoding")).contains("gzip");
+        try (GZIPInputStream gunzip = new GZIPInputStream(new ByteArrayInputStream(gzipped.body()))) {
+            assertThat(gunzip.readAllBytes()).isEqualTo(raw.body());
+        }
+    }
+
+    @Test
+    @DisplayName("15. Las altas llegan por SSE y se reenvían tras reconectar con Last-Event-ID")
+    void userEventsAreStreamedAndReplayed() throws Exception {
+        String adminToken = getAdminToken();
+
+        // Con Last-Event-ID 0 el alta llega aunque se publique antes de completar la suscripción.
+        SseEvent first;
+        try (Stream<String> lines = openUserEvents(adminToken, "0")) {
+            makeRequest("POST", "/api/users/register", "{\"firstName\": \"Sse\", \"lastName\": \"One\", \"email\": \"sse1@test.com\", \"password\": \"pass\", \"confirmPassword\": \"pass\"}", adminToken);
+            first = nextEventFor(lines, "sse1@test.com");
+        }
+        assertThat(first.id()).isGreaterThan(TimeUnit.MILLISECONDS.toMicros(appStartMillis));
+
+        makeRequest("POST", "/api/users/register", "{\"firstName\": \"Sse\", \"lastName\": \"Two\", \"email\": \"sse2@test.com\", \"password\": \"pass\", \"confirmPassword\": \"pass\"}", adminToken);
+        try (Stream<String> lines = openUserEvents(adminToken, String.valueOf(first.id()))) {
+            SseEvent replayed = nextEventFor(lines, null);
+            assertThat(replayed.data()).contains("sse2@test.com");
+            assertThat(replayed.id()).isGreaterThan(first.id());
+        }
+    }
+
+    @Test
+    @DisplayName("16. Los eventos JFR de base de datos llevan el X-Request-Id y registran también las esperas fallidas")
+    void databaseJfrEventsCarryTheRequestId() throws Exception {
+        String adminToken = getAdminToken();
+        Path dump = Files.createTempFile("api-events", ".jfr");
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable(PoolAcquireEvent.class).withThreshold(Duration.ZERO);
+            recording.enable(BlacklistQueryEvent.class).withThreshold(Duration.ZERO);
+            recording.start();
+
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(BASE_URL + "/api/users/1"))
+                    .header("Authorization", "Bearer " + adminToken)
+                    .header(RequestIdMiddleware.HEADER, "jfr-ok")
+                    .GET()
+                    .build();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            assertThat(response.statusCode()).isEqualTo(200);
+            assertThat(response.headers().firstValue(RequestIdMiddleware.HEADER)).contains("jfr-ok");
+
+            // Con los permisos de ADMIN_BULK ocupados, la siguiente espera agota el plazo y falla.
+            List<Connection> held = new ArrayList<>();
+            try {
+                for (int i = 0; i < AppConfig.getBulkheadPermits(WorkloadClass.ADMIN_BULK); i++) {
+                    held.add(DatabaseConfig.getConnection(WorkloadClass.ADMIN_BULK));
+                }
+                RequestContext.setRequestId("jfr-failed");
+                RequestContext.setDeadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(50));
+                assertThatThrownBy(() -> DatabaseConfig.getConnection(WorkloadClass.ADMIN_BULK)).isInstanceOf(SQLException.class);
+            } finally {
+                RequestContext.clear();
+                for (Connection conn : held) {
+                    conn.close();
+                }
+            }
+            recording.stop();
+            recording.dump(dump);
+            // Los eventos propios están activos por defecto: se filtran los dos de base de datos.
+            events = RecordingFile.readAllEvents(dump).stream()
+                    .filter(event -> event.getEventType().getName().matches("org\\.example\\.(PoolAcquire|BlacklistQuery)"))
+                    .toList();
+        } finally {
+            Files.deleteIfExists(dump);
+        }
+
+        assertThat(events).filteredOn(event -> "jfr-ok".equals(event.getString("requestId")))
+                .extracting(event -> event.getEventType().getName())
+                .contains("org.example.PoolAcquire", "org.example.BlacklistQuery");
+        assertThat(events).filteredOn(event -> "jfr-ok".equals(event.getString("requestId")))
+                .allSatisfy(event -> assertThat(event.getBoolean("failed")).isFalse());
+        assertThat(events).filteredOn(event -> "jfr-failed".equals(event.getString("requestId")))
+                .singleElement()
+                .satisfies(event -> {
+                    assertThat(event.getEventType().getName()).isEqualTo("org.example.PoolAcquire");
+                    assertThat(event.getString("workload")).isEqualTo(WorkloadClass.ADMIN_BULK.name());
+                    assertThat(event.getBoolean("failed")).isTrue();
+                });
+    }
+
+    @Test
+    @DisplayName("17. Los tokens emitidos se validan y devuelven los mismos claims")
+    void mintedTokensRoundTripThroughValidation() {
+        User user = new User();
+        user.setId(7);
+        user.setEmail("comillas\"y\\barra\u0001ñ@test.com");
+        user.setRole(Role.WAITER);
+
+        String token = JWTUtil.generateToken(user);
+        Claims claims = JWTUtil.validateAndExtractClaims(token);
+
+        assertThat(claims).isNotNull();
+        assertThat(claims.getSubject()).isEqualTo("7");
+        assertThat(claims.get("email", String.class)).isEqualTo(user.getEmail());
+        assertThat(claims.get("role", String.class)).isEqualTo("WAITER");
+        assertThat(claims.getExpiration().getTime() - claims.getIssuedAt().getTime()).isEqualTo(TimeUnit.HOURS.toMillis(24));
+
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+        assertThat(JWTUtil.validateAndExtractClaims(tampered)).isNull();
+    }
+
+    @Test
+    @DisplayName("18. Una lectura por id sin concurrencia respeta el plazo de la petición aunque la consulta se bloquee")
+    void blockedReadByIdReturnsGatewayTimeoutWithinItsDeadline() throws Exception {
+        String adminToken = getAdminToken();
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(BASE_URL + "/api/users/1"))
+                .header("Authorization", "Bearer " + adminToken)
+                .header(DeadlineMiddleware.HEADER, "1500")
+                .timeout(Duration.ofSeconds(10))
+                .GET()
+                .build();
+
+        // Otra sesión bloquea la tabla: la consulta de la petición espera hasta que la cancele su timeout.
+        try (Connection lockHolder = DriverManager.getConnection(AppConfig.getDbUrl(), AppConfig.getDbUser(), AppConfig.getDbPassword());
+             Statement stmt = lockHolder.createStatement()) {
+            stmt.execute("LOCK TABLES users WRITE");
+            long start = System.nanoTime();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+            assertThat(response.statusCode()).isEqualTo(504);
+            // El timeout de la consulta se redondea al segundo: 1,5 s de plazo se cancelan a los 2 s.
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(4000);
+            stmt.execute("UNLOCK TABLES");
+        }
+
+        assertThat(client.send(request, HttpResponse.BodyHandlers.ofString()).statusCode()).isEqualTo(200);
+    }
+
+    private record SseEvent(long id, String data) {}
+
+    private Stream<String> openUserEvents(String token, String lastEventId) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(BASE_URL + "/api/users/events"))
+                .header("Authorization", "Bearer " + token)
+                .header("Accept", "text/event-stream")
+                .header("Last-Event-ID", lastEventId)
+                .GET()
+                .build();
+        HttpResponse<Stream<String>> response = client.sendAsync(request, HttpResponse.BodyHandlers.ofLines()).get(5, TimeUnit.SECONDS);
+        assertThat(response.statusCode()).isEqualTo(200);
+        return response.body();
+    }
+
+    /**
+     * Lee eventos hasta el primero cuyo data contenga el email indicado (o el primero, si es null).
+     */
+    private SseEvent nextEventFor(Stream<String> lines, String email) throws Exception {
+        Iterator<String> iterator = lines.iterator();
+        return CompletableFuture.supplyAsync(() -> {
+            Long id = null;
+            String data = null;
+            while (iterator.hasNext()) {
+                String line = iterator.next();
+                if (line.startsWith("id:")) {
+                    id = Long.parseLong(line.substring(3).trim());
+                } else if (line.startsWith("data:")) {
+                    data = line.substring(5).trim();
+                } else if (line.isEmpty() && data != null) {
+                    if (email == null || data.contains(email)) {
+                        return new SseEvent(id, data);
+                    }
+                    id = null;
+                    data = null;
+                }
+            }
+            throw new AssertionError("El stream SSE terminó sin el evento esperado");
+        }).get(5, TimeUnit.SECONDS);
+    }
+
+    private List<String> auditEventsFor(int userId, String email) throws SQLException {
+        List<String> events = new ArrayList<>();
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT event_type FROM auth_audit WHERE user_id = ? OR email = ? ORDER BY id")) {
+            pstmt.setInt(1, userId);
+            pstmt.setString(2, email);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    events.add(rs.getString(1));
+                }
+            }
+        }
+        return events;
+    }
+
     private String getAdminToken() throws IOException, InterruptedException {
         return getUserToken("admin@system.com", "admin123");
     }
@@ -0,0 +1,164 @@
+package org.example.controllers;
+
+import io.javalin.Javalin;
+import org.example.config.ExceptionHandlerConfig;
+import org.example.exceptions.DataAccessException;
+import org.example.mappers.UserMapper;
+import org.example.models.Role;
+import org.example.models.User;
+import org.example.repositories.UserRepository;
+import org.example.services.UserService;
+import org.example.utils.Bulkhead;
+import org.example.utils.ContentNegotiation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class UserExportTest {
+
+    private Javalin app;
+
+    /**
+     * Repositorio sin base de datos cuyo recorrido completo lo decide cada test.
+     */
+    private record ScanOnlyRepository(Consumer<Consumer<User>> scan) implements UserRepository {
+        @Override
+        public Optional<User> findByEmail(String email) {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<User> findById(int id) {
+            return Optional.empty();
+        }
+
+        @Override
+        public List<User> findAll() {
+            return List.of();
+        }
+
+        @Override
+        public List<User> findAllByIds(Collection<Integer> ids) {
+            return List.of();
+        }
+
+        @Override
+        public void forEach(Consumer<User> consumer) {
+            scan.accept(consumer);
+        }
+
+        @Override
+        public User save(User user) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    @AfterEach
+    void stopApp() {
+        if (app != null) {
+            app.stop();
+        }
+    }
+
+    private void startApp(Consumer<Consumer<User>> scan) {
+        UserService userService = new UserService(new ScanOnlyRepository(scan), new UserMapper());
+        UserController controller = new UserController(userService, null, new ContentNegotiation(), null,
+                new Bulkhead("export", 1, 0), 2000);
+        app = Javalin.create();
+        app.get("/export", controller::exportUsers);
+        ExceptionHandlerConfig.register(app);
+        app.start(0);
+    }
+
+    private static User user(int id) {
+        User user = new User();
+        user.setId(id);
+        user.setFirstName("First" + id);
+        user.setLastName("Last, " + id);
+        user.setEmail("user" + id + "@test.com");
+        user.setRole(Role.WAITER);
+        return user;
+    }
+
+    private HttpRequest export(String format) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + app.port() + "/export?format=" + format)).build();
+    }
+
+    @Test
+    @DisplayName("La exportación escribe una fila por usuario en NDJSON y CSV")
+    void exportsOneRowPerUser() throws Exception {
+        startApp(consumer -> List.of(user(1), user(2)).forEach(consumer));
+        HttpClient client = HttpClient.newHttpClient();
+
+        HttpResponse<String> ndjson = client.send(export("ndjson"), HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> csv = client.send(export("csv"), HttpResponse.BodyHandlers.ofString());
+
+        assertThat(ndjson.statusCode()).isEqualTo(200);
+        assertThat(ndjson.body().lines()).hasSize(2).first().asString().contains("\"email\":\"user1@test.com\"");
+        assertThat(csv.statusCode()).isEqualTo(200);
+        assertThat(csv.body().lines()).containsExactly(
+                "id,firstName,middleName,lastName,email,role,createdAt",
+                "1,First1,,\"Last, 1\",user1@test.com,WAITER,",
+                "2,First2,,\"Last, 2\",user2@test.com,WAITER,");
+    }
+
+    @Test
+    @DisplayName("Con el cupo ocupado, otra exportación recibe 503 sin esperar")
+    void concurrentExportIsRejected() throws Exception {
+        CountDownLatch scanning = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        startApp(consumer -> {
+            consumer.accept(user(1));
+            scanning.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        HttpClient client = HttpClient.newHttpClient();
+
+        CompletableFuture<HttpResponse<String>> first = client.sendAsync(export("ndjson"), HttpResponse.BodyHandlers.ofString());
+        assertThat(scanning.await(5, TimeUnit.SECONDS)).isTrue();
+        HttpResponse<String> second = client.send(export("ndjson"), HttpResponse.BodyHandlers.ofString());
+        release.countDown();
+
+        assertThat(second.statusCode()).isEqualTo(503);
+        assertThat(second.headers().firstValue("Retry-After")).isPresent();
+        assertThat(first.get(5, TimeUnit.SECONDS).statusCode()).isEqualTo(200);
+        // El permiso se devuelve al terminar.
+        assertThat(client.send(export("ndjson"), HttpResponse.BodyHandlers.ofString()).statusCode()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("Un fallo con la respuesta ya enviada corta la conexión en lugar de terminarla bien")
+    void failureAfterCommitAbortsTheResponse() {
+        startApp(consumer -> {
+            // Suficientes filas para llenar el buffer y enviar las cabeceras antes del fallo.
+            for (int id = 1; id <= 2000; id++) {
+                consumer.accept(user(id));
+            }
+            throw new DataAccessException("cursor lost", new java.sql.SQLException("connection reset"));
+        });
+        HttpClient client = HttpClient.newHttpClient();
+
+        assertThatThrownBy(() -> client.send(export("ndjson"), HttpResponse.BodyHandlers.ofString()))
+                .isInstanceOf(IOException.class);
+    }
+}
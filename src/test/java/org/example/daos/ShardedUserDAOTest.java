@@ -0,0 +1,162 @@
+package org.example.daos;
+
+import org.example.Main;
+import org.example.config.AppConfig;
+import org.example.config.DatabaseConfig;
+import org.example.models.Role;
+import org.example.models.User;
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sharding de usuarios contra el MySQL local, con un esquema por shard junto a la base de pruebas.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ShardedUserDAOTest {
+
+    private static final int SHARDS = 3;
+    private static final int USERS = 30;
+
+    private ShardedUserDAO userDAO;
+    private final List<User> saved = new ArrayList<>();
+
+    @BeforeAll
+    public void setupAll() throws SQLException {
+        Main.isTesting = true;
+        DatabaseConfig.close();
+        String primaryUrl = AppConfig.getDbUrl();
+        List<String> shardUrls = new ArrayList<>();
+        try (Connection conn = DriverManager.getConnection(primaryUrl, AppConfig.getDbUser(), AppConfig.getDbPassword());
+             Statement stmt = conn.createStatement()) {
+            // Se parte de la base principal solo con el administrador, que se copiará a su shard.
+            stmt.execute("DROP TABLE IF EXISTS user_directory");
+            stmt.execute("DROP TABLE IF EXISTS users");
+            for (int shard = 0; shard < SHARDS; shard++) {
+                String schema = conn.getCatalog() + "_shard_" + shard;
+                stmt.execute("DROP DATABASE IF EXISTS " + schema);
+                stmt.execute("CREATE DATABASE " + schema);
+                shardUrls.add(primaryUrl.substring(0, primaryUrl.lastIndexOf('/') + 1) + schema);
+            }
+        }
+        System.setProperty("DB_SHARD_URLS", String.join(",", shardUrls));
+        DatabaseConfig.init();
+        userDAO = new ShardedUserDAO();
+
+        for (int i = 0; i < USERS; i++) {
+            User user = new User();
+            user.setFirstName("Shard");
+            user.setLastName("User" + i);
+            user.setEmail("shard" + i + "@test.com");
+            user.setPassword("hash");
+            user.setRole(i % 2 == 0 ? Role.WAITER : Role.ADMIN);
+            saved.add(userDAO.save(user));
+        }
+    }
+
+    @AfterAll
+    public void teardownAll() {
+        DatabaseConfig.close();
+        System.clearProperty("DB_SHARD_URLS");
+    }
+
+    private static Set<Integer> idsOnShard(int shard) throws SQLException {
+        Set<Integer> ids = new HashSet<>();
+        try (Connection conn = DatabaseConfig.getShardConnection(shard);
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id FROM users")) {
+            while (rs.next()) {
+                ids.add(rs.getInt(1));
+            }
+        }
+        return ids;
+    }
+
+    @Test
+    @DisplayName("Cada usuario se guarda únicamente en el shard que le asigna el anillo")
+    void usersAreStoredOnTheirShard() throws SQLException {
+        assertThat(DatabaseConfig.getShardCount()).isEqualTo(SHARDS);
+        List<Set<Integer>> shards = new ArrayList<>();
+        for (int shard = 0; shard < SHARDS; shard++) {
+            shards.add(idsOnShard(shard));
+        }
+
+        for (User user : saved) {
+            int expected = DatabaseConfig.getShardFor(user.getId());
+            for (int shard = 0; shard < SHARDS; shard++) {
+                assertThat(shards.get(shard).contains(user.getId())).isEqualTo(shard == expected);
+            }
+        }
+        // Con 30 usuarios el reparto no puede caer entero en un shard.
+        assertThat(shards).filteredOn(ids -> !ids.isEmpty()).hasSizeGreaterThan(1);
+        // El administrador inicial se copia desde la tabla principal conservando su id.
+        assertThat(shards.get(DatabaseConfig.getShardFor(1))).contains(1);
+    }
+
+    @Test
+    @DisplayName("La búsqueda por email resuelve el id en el directorio y lee un único shard")
+    void findByEmailUsesTheDirectory() throws SQLException {
+        User user = saved.get(7);
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT id FROM user_directory WHERE email = ?")) {
+            pstmt.setString(1, user.getEmail());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                assertThat(rs.next()).isTrue();
+                assertThat(rs.getInt(1)).isEqualTo(user.getId());
+            }
+        }
+
+        assertThat(userDAO.findByEmail(user.getEmail())).get()
+                .extracting(User::getId, User::getLastName)
+                .containsExactly(user.getId(), user.getLastName());
+        assertThat(userDAO.findByEmail("admin@system.com")).get().extracting(User::getId).isEqualTo(1);
+        assertThat(userDAO.findByEmail("missing@test.com")).isEmpty();
+        assertThat(userDAO.findById(user.getId())).get().extracting(User::getEmail).isEqualTo(user.getEmail());
+    }
+
+    @Test
+    @DisplayName("Las lecturas de varios shards se combinan ordenadas por id")
+    void scatterGatherMergesShardsById() {
+        List<Integer> allIds = new ArrayList<>(List.of(1));
+        saved.forEach(user -> allIds.add(user.getId()));
+
+        assertThat(userDAO.findAll()).extracting(User::getId).containsExactlyElementsOf(allIds);
+
+        List<Integer> requested = IntStream.range(0, USERS).filter(i -> i % 3 == 0)
+                .mapToObj(i -> saved.get(USERS - 1 - i).getId()).toList();
+        assertThat(userDAO.findAllByIds(requested)).extracting(User::getId)
+                .isSorted().containsExactlyInAnyOrderElementsOf(requested);
+
+        List<String> emails = List.of(saved.get(2).getEmail(), saved.get(11).getEmail(), "missing@test.com");
+        assertThat(userDAO.findAllByEmails(emails)).extracting(User::getId)
+                .containsExactly(saved.get(2).getId(), saved.get(11).getId());
+
+        Map<Role, Long> counts = userDAO.countByRole();
+        assertThat(counts).containsEntry(Role.WAITER, (long) USERS / 2).containsEntry(Role.ADMIN, USERS / 2 + 1L);
+    }
+
+    @Test
+    @DisplayName("El recorrido completo mezcla los cursores de los shards en orden global de id")
+    void forEachMergesCursorsInIdOrder() {
+        List<Integer> streamed = new ArrayList<>();
+        userDAO.forEach(user -> streamed.add(user.getId()));
+
+        assertThat(streamed).isSorted().doesNotHaveDuplicates()
+                .containsExactlyElementsOf(userDAO.findAll().stream().map(User::getId).collect(Collectors.toList()));
+        assertThat(streamed).hasSize(USERS + 1);
+    }
+}
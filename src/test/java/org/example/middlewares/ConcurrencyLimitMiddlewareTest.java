@@ -0,0 +1,141 @@
+package org.example.middlewares;
+
+import io.javalin.Javalin;
+import io.javalin.http.HandlerType;
+import org.example.config.ExceptionHandlerConfig;
+import org.example.config.WorkloadClass;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConcurrencyLimitMiddlewareTest {
+
+    private static final int INITIAL_LIMIT = 10;
+    private static final int LOGIN_MILLIS = 150;
+
+    private Javalin app;
+
+    @AfterEach
+    void stopApp() {
+        if (app != null) {
+            app.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Las peticiones que exceden el límite reciben 503 antes de autenticarse")
+    void excessRequestsAreShedBeforeAuthentication() throws Exception {
+        int permits = INITIAL_LIMIT;
+        ConcurrencyLimitMiddleware concurrencyLimit = new ConcurrencyLimitMiddleware(true, INITIAL_LIMIT, 1, 50);
+        AtomicInteger authentications = new AtomicInteger();
+        CountDownLatch admitted = new CountDownLatch(permits);
+        CountDownLatch release = new CountDownLatch(1);
+
+        app = Javalin.create();
+        app.beforeMatched(concurrencyLimit.before());
+        app.beforeMatched(ctx -> authentications.incrementAndGet());
+        app.after(concurrencyLimit.after());
+        app.get("/slow/{id}", ctx -> {
+            admitted.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            ctx.result("ok");
+        });
+        app.get("/free", ctx -> ctx.result("ok"));
+        concurrencyLimit.limit(HandlerType.GET, "/slow/{id}", WorkloadClass.USER_READ);
+        ExceptionHandlerConfig.register(app);
+        app.start(0);
+
+        HttpClient client = HttpClient.newHttpClient();
+        List<CompletableFuture<HttpResponse<String>>> inFlight = new ArrayList<>();
+        for (int i = 0; i < permits; i++) {
+            inFlight.add(client.sendAsync(get("/slow/" + i), HttpResponse.BodyHandlers.ofString()));
+        }
+        assertThat(admitted.await(5, TimeUnit.SECONDS)).isTrue();
+        // El límite cubre la petición entera: no se recorta al cupo de conexiones de la clase.
+        assertThat(permits).isGreaterThan(WorkloadClass.USER_READ.getDefaultPermits());
+
+        HttpResponse<String> shed = client.send(get("/slow/extra"), HttpResponse.BodyHandlers.ofString());
+        assertThat(shed.statusCode()).isEqualTo(503);
+        assertThat(shed.headers().firstValue("Retry-After")).contains("1");
+        assertThat(authentications.get()).isEqualTo(permits);
+
+        // Las rutas sin declarar no comparten el cupo.
+        assertThat(client.send(get("/free"), HttpResponse.BodyHandlers.ofString()).statusCode()).isEqualTo(200);
+
+        release.countDown();
+        for (CompletableFuture<HttpResponse<String>> response : inFlight) {
+            assertThat(response.get(5, TimeUnit.SECONDS).statusCode()).isEqualTo(200);
+        }
+        // Los permisos se devuelven al terminar: la siguiente petición vuelve a entrar.
+        assertThat(client.send(get("/slow/again"), HttpResponse.BodyHandlers.ofString()).statusCode()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("Los logins lentos no pierden cupo por mezclarse con logouts y credenciales rechazadas")
+    void mixedLoginLogoutLoadKeepsLoginsAdmitted() throws Exception {
+        int clients = 4;
+        ConcurrencyLimitMiddleware concurrencyLimit = new ConcurrencyLimitMiddleware(true, clients, 1, 50);
+
+        app = Javalin.create();
+        app.beforeMatched(concurrencyLimit.before());
+        app.after(concurrencyLimit.after());
+        // El login verifica la contraseña con BCrypt salvo para un email desconocido, que falla enseguida.
+        app.post("/login/{email}", ctx -> {
+            if (ctx.pathParam("email").startsWith("unknown")) {
+                ctx.status(401);
+                return;
+            }
+            Thread.sleep(LOGIN_MILLIS);
+            ctx.result("ok");
+        });
+        app.post("/logout", ctx -> ctx.result("ok"));
+        concurrencyLimit.limitSeparately(HandlerType.POST, "/login/{email}", "TEST_LOGIN");
+        concurrencyLimit.limit(HandlerType.POST, "/logout", WorkloadClass.AUTH_CRITICAL);
+        ExceptionHandlerConfig.register(app);
+        app.start(0);
+
+        HttpClient client = HttpClient.newHttpClient();
+        AtomicInteger shed = new AtomicInteger();
+        List<CompletableFuture<Void>> workers = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            workers.add(CompletableFuture.runAsync(() -> {
+                try {
+                    for (int i = 0; i < 10; i++) {
+                        for (String path : List.of("/logout", "/logout", "/logout", "/login/unknown" + i, "/login/user" + i)) {
+                            if (client.send(post(path), HttpResponse.BodyHandlers.discarding()).statusCode() == 503) {
+                                shed.incrementAndGet();
+                            }
+                        }
+                    }
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+        }
+        CompletableFuture.allOf(workers.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+
+        assertThat(shed.get()).isZero();
+    }
+
+    private HttpRequest post(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + app.port() + path))
+                .POST(HttpRequest.BodyPublishers.noBody()).build();
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + app.port() + path)).build();
+    }
+}
@@ -0,0 +1,83 @@
+package org.example.middlewares;
+
+import io.javalin.Javalin;
+import io.javalin.http.HandlerType;
+import org.example.config.ExceptionHandlerConfig;
+import org.example.utils.RequestContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DeadlineMiddlewareTest {
+
+    private static final int ROUTE_BUDGET_MILLIS = 2000;
+
+    private Javalin app;
+    private DeadlineMiddleware deadlines;
+    // Tiempo restante que ve la autenticación en cada petición, o null si no tiene plazo.
+    private final List<Long> remainingAtAuthentication = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void startApp() {
+        deadlines = new DeadlineMiddleware();
+        app = Javalin.create();
+        app.before(deadlines.before());
+        app.after(ctx -> RequestContext.clear());
+        app.beforeMatched(deadlines.beforeMatched());
+        app.beforeMatched(ctx -> remainingAtAuthentication.add(
+                RequestContext.getDeadline() != null ? TimeUnit.NANOSECONDS.toMillis(RequestContext.remainingNanos()) : null));
+        app.get("/budgeted/{id}", ctx -> ctx.result("ok"));
+        app.get("/free", ctx -> ctx.result("ok"));
+        deadlines.within(HandlerType.GET, "/budgeted/{id}", "TEST", ROUTE_BUDGET_MILLIS);
+        ExceptionHandlerConfig.register(app);
+        app.start(0);
+    }
+
+    @AfterEach
+    void stopApp() {
+        app.stop();
+    }
+
+    @Test
+    @DisplayName("El plazo de la ruta ya está fijado cuando se autentica la petición")
+    void routeBudgetIsSetBeforeAuthentication() throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+
+        assertThat(client.send(get("/budgeted/1").build(), HttpResponse.BodyHandlers.ofString()).statusCode()).isEqualTo(200);
+        assertThat(client.send(get("/budgeted/2").header(DeadlineMiddleware.HEADER, "500").build(),
+                HttpResponse.BodyHandlers.ofString()).statusCode()).isEqualTo(200);
+        assertThat(client.send(get("/free").build(), HttpResponse.BodyHandlers.ofString()).statusCode()).isEqualTo(200);
+
+        assertThat(remainingAtAuthentication).hasSize(3);
+        assertThat(remainingAtAuthentication.get(0)).isBetween(ROUTE_BUDGET_MILLIS - 1000L, (long) ROUTE_BUDGET_MILLIS);
+        // Vale el más corto entre la cabecera y el plazo de la ruta.
+        assertThat(remainingAtAuthentication.get(1)).isLessThanOrEqualTo(500L);
+        assertThat(remainingAtAuthentication.get(2)).isNull();
+        assertThat(deadlines.getLongestRouteBudgetMillis()).isEqualTo(ROUTE_BUDGET_MILLIS);
+    }
+
+    @Test
+    @DisplayName("Una petición con el plazo agotado recibe 504 sin llegar a autenticarse")
+    void expiredDeadlineIsRejectedBeforeAuthentication() throws Exception {
+        HttpResponse<String> response = HttpClient.newHttpClient().send(
+                get("/budgeted/1").header(DeadlineMiddleware.HEADER, "0").build(), HttpResponse.BodyHandlers.ofString());
+
+        assertThat(response.statusCode()).isEqualTo(504);
+        assertThat(remainingAtAuthentication).isEmpty();
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + app.port() + path)).GET();
+    }
+}
@@ -0,0 +1,217 @@
+package org.example.repositories.impl;
+
+import org.example.exceptions.DataAccessException;
+import org.example.utils.RequestContext;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLTimeoutException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CoalescingLoaderTest {
+
+    /**
+     * Cargador de lotes que registra cada lote y el hilo que lo ejecutó. Los lotes se quedan
+     * bloqueados hasta abrir su compuerta, en orden de llegada.
+     */
+    private static class RecordingBatchLoader {
+        final List<List<Integer>> batches = Collections.synchronizedList(new ArrayList<>());
+        final List<String> threads = Collections.synchronizedList(new ArrayList<>());
+        final List<CountDownLatch> gates = List.of(new CountDownLatch(1), new CountDownLatch(1), new CountDownLatch(1));
+        final CountDownLatch entered;
+
+        RecordingBatchLoader(int expectedBatches) {
+            this.entered = new CountDownLatch(expectedBatches);
+        }
+
+        Map<Integer, String> load(List<Integer> keys) {
+            int index = batches.size();
+            batches.add(List.copyOf(keys));
+            threads.add(Thread.currentThread().getName());
+            entered.countDown();
+            try {
+                gates.get(Math.min(index, gates.size() - 1)).await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            Map<Integer, String> values = new HashMap<>();
+            keys.forEach(key -> values.put(key, "user-" + key));
+            return values;
+        }
+    }
+
+    /**
+     * Lanza la carga en un hilo propio para poder esperar a que quede aparcada en su futuro.
+     */
+    private static Future<Optional<String>> submitLoad(ExecutorService callers, List<Thread> callerThreads,
+                                                       CoalescingLoader<Integer, String> coalescing, int key) {
+        return callers.submit(() -> {
+            callerThreads.add(Thread.currentThread());
+            return coalescing.load(key);
+        });
+    }
+
+    private static void awaitParked(List<Thread> threads, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            if (threads.size() >= expected && threads.stream().allMatch(thread -> thread.getState() == Thread.State.WAITING
+                    || thread.getState() == Thread.State.TIMED_WAITING)) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Los hilos no llegaron a esperar el resultado");
+    }
+
+    @Test
+    @DisplayName("Las cargas simultáneas de una misma clave comparten una sola consulta")
+    void concurrentLoadsOfTheSameKeyShareOneBatch() throws Exception {
+        RecordingBatchLoader loader = new RecordingBatchLoader(1);
+        CoalescingLoader<Integer, String> coalescing = new CoalescingLoader<>(loader::load, 100, 3);
+        ExecutorService callers = Executors.newFixedThreadPool(3);
+        try {
+            Future<Optional<String>> first = callers.submit(() -> coalescing.load(1));
+            assertThat(loader.entered.await(5, TimeUnit.SECONDS)).isTrue();
+            List<Thread> waiters = new CopyOnWriteArrayList<>();
+            Future<Optional<String>> second = submitLoad(callers, waiters, coalescing, 1);
+            Future<Optional<String>> third = submitLoad(callers, waiters, coalescing, 1);
+            awaitParked(waiters, 2);
+            loader.gates.forEach(CountDownLatch::countDown);
+
+            assertThat(first.get(5, TimeUnit.SECONDS)).contains("user-1");
+            assertThat(second.get(5, TimeUnit.SECONDS)).contains("user-1");
+            assertThat(third.get(5, TimeUnit.SECONDS)).contains("user-1");
+            assertThat(loader.batches).containsExactly(List.of(1));
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Las claves que llegan durante un lote van juntas al siguiente, fuera del hilo líder")
+    void keysQueuedDuringABatchAreLoadedTogetherByAnotherThread() throws Exception {
+        RecordingBatchLoader loader = new RecordingBatchLoader(1);
+        CoalescingLoader<Integer, String> coalescing = new CoalescingLoader<>(loader::load, 100, 1);
+        ExecutorService callers = Executors.newFixedThreadPool(3);
+        try {
+            Future<Optional<String>> leader = callers.submit(() -> coalescing.load(1));
+            assertThat(loader.entered.await(5, TimeUnit.SECONDS)).isTrue();
+            List<Thread> waiters = new CopyOnWriteArrayList<>();
+            Future<Optional<String>> second = submitLoad(callers, waiters, coalescing, 2);
+            Future<Optional<String>> third = submitLoad(callers, waiters, coalescing, 3);
+            // Sin hueco libre, ambas claves quedan encoladas esperando su resultado.
+            awaitParked(waiters, 2);
+            assertThat(loader.batches).hasSize(1);
+
+            loader.gates.get(0).countDown();
+            // El líder vuelve tras su propio lote aunque el siguiente siga en curso.
+            assertThat(leader.get(5, TimeUnit.SECONDS)).contains("user-1");
+            assertThat(second.isDone()).isFalse();
+
+            loader.gates.get(1).countDown();
+            assertThat(second.get(5, TimeUnit.SECONDS)).contains("user-2");
+            assertThat(third.get(5, TimeUnit.SECONDS)).contains("user-3");
+            assertThat(loader.batches).hasSize(2);
+            assertThat(loader.batches.get(1)).containsExactlyInAnyOrder(2, 3);
+            assertThat(loader.threads.get(1)).startsWith("coalescing-loader");
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Puede haber varios lotes en vuelo a la vez")
+    void severalBatchesCanBeInFlight() throws Exception {
+        RecordingBatchLoader loader = new RecordingBatchLoader(2);
+        CoalescingLoader<Integer, String> coalescing = new CoalescingLoader<>(loader::load, 100, 2);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            Future<Optional<String>> first = callers.submit(() -> coalescing.load(1));
+            while (loader.batches.isEmpty()) {
+                Thread.sleep(10);
+            }
+            Future<Optional<String>> second = callers.submit(() -> coalescing.load(2));
+
+            // El segundo lote empieza mientras el primero sigue bloqueado.
+            assertThat(loader.entered.await(5, TimeUnit.SECONDS)).isTrue();
+            loader.gates.forEach(CountDownLatch::countDown);
+            assertThat(first.get(5, TimeUnit.SECONDS)).contains("user-1");
+            assertThat(second.get(5, TimeUnit.SECONDS)).contains("user-2");
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("El lote corre con el plazo de quien lo encoló y, si vence, los demás vuelven a cargar")
+    void batchRunsUnderTheLeaderDeadlineAndFollowersRetry() throws Exception {
+        List<Long> batchDeadlines = new CopyOnWriteArrayList<>();
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch gate = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        CoalescingLoader<Integer, String> coalescing = new CoalescingLoader<>(keys -> {
+            batchDeadlines.add(RequestContext.getDeadline());
+            if (calls.getAndIncrement() == 0) {
+                entered.countDown();
+                try {
+                    gate.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new DataAccessException("Query timed out", new SQLTimeoutException("Query timed out"));
+            }
+            return Map.of(keys.get(0), "user-" + keys.get(0));
+        }, 100, 3);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        long leaderDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        long followerDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        try {
+            Future<Optional<String>> leader = callers.submit(() -> {
+                RequestContext.setDeadline(leaderDeadline);
+                try {
+                    return coalescing.load(1);
+                } finally {
+                    RequestContext.clear();
+                }
+            });
+            assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+            List<Thread> waiters = new CopyOnWriteArrayList<>();
+            Future<Optional<String>> follower = callers.submit(() -> {
+                waiters.add(Thread.currentThread());
+                RequestContext.setDeadline(followerDeadline);
+                try {
+                    return coalescing.load(1);
+                } finally {
+                    RequestContext.clear();
+                }
+            });
+            awaitParked(waiters, 1);
+            while (System.nanoTime() - leaderDeadline < 0) {
+                Thread.sleep(10);
+            }
+            gate.countDown();
+
+            assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(DataAccessException.class);
+            // El seguidor aún tenía tiempo: repite la carga con su propio plazo.
+            assertThat(follower.get(5, TimeUnit.SECONDS)).contains("user-1");
+            assertThat(batchDeadlines).containsExactly(leaderDeadline, followerDeadline);
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package org.example.repositories.impl;
+
+import org.example.daos.UserDAO;
+import org.example.models.Role;
+import org.example.models.User;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class InMemoryUserRepositoryTest {
+
+    /**
+     * UserDAO sin base de datos: guarda los usuarios en una lista y cuenta las lecturas completas.
+     */
+    private static class FakeUserDAO extends UserDAO {
+        final List<User> rows = new CopyOnWriteArrayList<>();
+        final AtomicInteger findAllCalls = new AtomicInteger();
+        final AtomicInteger saves = new AtomicInteger();
+
+        @Override
+        public List<User> findAll() {
+            findAllCalls.incrementAndGet();
+            return new ArrayList<>(rows);
+        }
+
+        @Override
+        public User save(User user) {
+            saves.incrementAndGet();
+            user.setId(rows.size() + 1);
+            rows.add(user);
+            return user;
+        }
+    }
+
+    private static User user(int id, String email) {
+        User user = new User();
+        user.setId(id);
+        user.setFirstName("Test");
+        user.setLastName("User");
+        user.setEmail(email);
+        user.setPassword("hash");
+        user.setRole(Role.WAITER);
+        return user;
+    }
+
+    @Test
+    @DisplayName("Guardar escribe en la base de datos y deja el usuario visible en el índice")
+    void saveWritesThroughAndIndexes() {
+        FakeUserDAO dao = new FakeUserDAO();
+        dao.rows.add(user(1, "admin@test.com"));
+        InMemoryUserRepository repository = new InMemoryUserRepository(dao, 0);
+
+        User saved = repository.save(user(0, "New@Test.com"));
+
+        assertThat(dao.saves.get()).isEqualTo(1);
+        assertThat(saved.getId()).isEqualTo(2);
+        assertThat(repository.findById(2)).contains(saved);
+        assertThat(repository.findByEmail("new@test.com")).contains(saved);
+        assertThat(repository.mayContainEmail(" NEW@test.com ")).isTrue();
+        assertThat(repository.findAll()).extracting(User::getId).containsExactly(1, 2);
+    }
+
+    @Test
+    @DisplayName("La recarga periódica recoge usuarios de otras instancias y se detiene al cerrar")
+    void refreshPicksUpExternalUsersUntilClosed() throws InterruptedException {
+        FakeUserDAO dao = new FakeUserDAO();
+        InMemoryUserRepository repository = new InMemoryUserRepository(dao, 1);
+        try {
+            dao.rows.add(user(7, "other@test.com"));
+            long deadline = System.currentTimeMillis() + 5000;
+            while (repository.findById(7).isEmpty() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            assertThat(repository.findByEmail("other@test.com")).isPresent();
+        } finally {
+            repository.close();
+        }
+
+        int readsAfterClose = dao.findAllCalls.get();
+        Thread.sleep(1500);
+        assertThat(dao.findAllCalls.get()).isEqualTo(readsAfterClose);
+    }
+}
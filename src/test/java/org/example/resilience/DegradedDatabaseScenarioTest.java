@@ -0,0 +1,266 @@
+package org.example.resilience;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.javalin.Javalin;
+import org.example.Main;
+import org.example.config.DatabaseConfig;
+import org.example.metrics.Metrics;
+import org.example.middlewares.RequestIdMiddleware;
+import org.example.models.Role;
+import org.example.models.User;
+import org.example.utils.JWTUtil;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Escenario de carga con la base de datos degradada: mide la API con el pool real, después con
+ * latencia, esperas de conexión y errores inyectados, y por último el tiempo que tarda en volver
+ * a la normalidad al retirar los fallos. El informe queda en build/reports/resilience.
+ * También comprueba que las lecturas de usuarios se sirven desde la copia de respaldo mientras
+ * la tabla falla.
+ * Necesita MySQL; se ejecuta con ./gradlew resilienceTest.
+ */
+@Tag("resilience")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class DegradedDatabaseScenarioTest {
+
+    private static final String BASE_URL = "http://localhost:8080";
+    private static final String TARGET_PATH = "/api/users/1";
+    private static final int CLIENTS = 8;
+    private static final long PHASE_MILLIS = Long.getLong("resilience.phaseMillis", 5000);
+    private static final long RECOVERY_TIMEOUT_MILLIS = 30000;
+    private static final int RECOVERY_STREAK = 20;
+
+    private record Sample(long nanos, int status) {
+    }
+
+    private record PhaseResult(String name, int requests, double errorRate, long p50Millis, long p99Millis, long maxMillis) {
+        String describe() {
+            return String.format(Locale.ROOT, "%-9s requests=%d errorRate=%.3f p50=%dms p99=%dms max=%dms",
+                    name, requests, errorRate, p50Millis, p99Millis, maxMillis);
+        }
+    }
+
+    private Javalin app;
+    private HttpClient client;
+    private String adminToken;
+
+    @BeforeAll
+    public void setupAll() throws IOException, InterruptedException {
+        System.setProperty("DB_DATASOURCE_DECORATOR", FaultInjectingDataSourceDecorator.class.getName());
+        Main.isTesting = true;
+        DatabaseConfig.init();
+        app = Main.configureAndStartApp();
+        client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+        HttpRequest login = HttpRequest.newBuilder(URI.create(BASE_URL + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"email\": \"admin@system.com\", \"password\": \"admin123\"}"))
+                .build();
+        HttpResponse<String> response = client.send(login, HttpResponse.BodyHandlers.ofString());
+        assertThat(response.statusCode()).isEqualTo(200);
+        adminToken = new ObjectMapper().readTree(response.body()).at("/data/token").asText();
+    }
+
+    @AfterAll
+    public void teardownAll() {
+        FaultInjection.reset();
+        app.stop();
+        DatabaseConfig.close();
+        System.clearProperty("DB_DATASOURCE_DECORATOR");
+    }
+
+    @AfterEach
+    public void clearFaults() {
+        FaultInjection.reset();
+    }
+
+    @Test
+    @DisplayName("Con la tabla de usuarios caída se debe servir la última copia marcada como obsoleta")
+    void userReadsServeStaleSnapshotWhileDatabaseFails() throws Exception {
+        HttpResponse<Void> fresh = get(TARGET_PATH);
+        assertThat(fresh.statusCode()).isEqualTo(200);
+        assertThat(fresh.headers().firstValue(RequestIdMiddleware.STALE_HEADER)).isEmpty();
+
+        // Falla toda sentencia, también la consulta de revocación: el token se verificó en la petición anterior.
+        FaultInjection.addErrors(".*", 1.0);
+        for (int i = 0; i < 15; i++) {
+            HttpResponse<Void> response = get(TARGET_PATH);
+            assertThat(response.statusCode()).isEqualTo(200);
+            assertThat(response.headers().firstValue(RequestIdMiddleware.STALE_HEADER)).contains("true");
+        }
+        // La introspección en lote usa el mismo respaldo que la validación de cada petición.
+        HttpResponse<String> introspection = introspect(adminToken);
+        assertThat(introspection.statusCode()).isEqualTo(200);
+        assertThat(new ObjectMapper().readTree(introspection.body()).at("/data/0/active").asBoolean()).isTrue();
+        // Un token que nunca se comprobó no puede darse por no revocado sin base de datos.
+        User admin = new User();
+        admin.setId(1);
+        admin.setEmail("admin@system.com");
+        admin.setRole(Role.ADMIN);
+        assertThat(introspect(adminToken, JWTUtil.generateToken(admin)).statusCode()).isNotEqualTo(200);
+
+        // Al retirar el fallo, la revalidación en segundo plano vuelve a cerrar el circuito.
+        FaultInjection.reset();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(RECOVERY_TIMEOUT_MILLIS);
+        boolean recovered = false;
+        while (!recovered && System.nanoTime() - deadline < 0) {
+            HttpResponse<Void> response = get(TARGET_PATH);
+            recovered = response.statusCode() == 200 && response.headers().firstValue(RequestIdMiddleware.STALE_HEADER).isEmpty();
+            if (!recovered) {
+                Thread.sleep(200);
+            }
+        }
+        assertThat(recovered).isTrue();
+    }
+
+    @Test
+    @DisplayName("La API debe recuperarse tras una degradación de la base de datos")
+    void apiRecoversFromDegradedDatabase() throws Exception {
+        PhaseResult baseline = runPhase("baseline");
+
+        FaultInjection.addLatency("FROM users", FaultInjection.LatencyDistribution.exponential(40));
+        FaultInjection.addErrors("jwt_blacklist", 0.05);
+        FaultInjection.setAcquireStall(FaultInjection.LatencyDistribution.uniform(0, 20));
+        long fallbacksBefore = revocationFallbacks();
+        PhaseResult degraded = runPhase("degraded");
+        long fallbacks = revocationFallbacks() - fallbacksBefore;
+
+        FaultInjection.reset();
+        long recoveryMillis = measureRecovery(Math.max(50, baseline.p99Millis() * 2));
+        PhaseResult healed = runPhase("healed");
+
+        writeReport(List.of(baseline, degraded, healed), recoveryMillis);
+
+        assertThat(baseline.errorRate()).isZero();
+        // Los fallos de la blacklist no llegan al cliente: el token se verificó hace poco.
+        assertThat(fallbacks).isGreaterThan(0);
+        assertThat(degraded.errorRate()).isZero();
+        // La mediana: el p99 de unos cientos de peticiones depende de un puñado de muestras.
+        assertThat(degraded.p50Millis()).isGreaterThan(baseline.p50Millis());
+        assertThat(healed.errorRate()).isZero();
+        assertThat(recoveryMillis).isLessThan(RECOVERY_TIMEOUT_MILLIS);
+    }
+
+    private PhaseResult runPhase(String name) throws InterruptedException {
+        Collection<Sample> samples = new ConcurrentLinkedQueue<>();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(PHASE_MILLIS);
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        for (int i = 0; i < CLIENTS; i++) {
+            clients.execute(() -> {
+                while (System.nanoTime() - deadline < 0) {
+                    samples.add(send());
+                }
+            });
+        }
+        clients.shutdown();
+        assertThat(clients.awaitTermination(PHASE_MILLIS + 60000, TimeUnit.MILLISECONDS)).isTrue();
+        return summarize(name, new ArrayList<>(samples));
+    }
+
+    // Milisegundos desde que se retiran los fallos hasta el inicio de una racha de respuestas sanas.
+    private long measureRecovery(long healthyMillis) {
+        long start = System.nanoTime();
+        long streakStart = start;
+        int streak = 0;
+        while (System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(RECOVERY_TIMEOUT_MILLIS)) {
+            long sentAt = System.nanoTime();
+            Sample sample = send();
+            if (sample.status() == 200 && TimeUnit.NANOSECONDS.toMillis(sample.nanos()) <= healthyMillis) {
+                if (streak++ == 0) {
+                    streakStart = sentAt;
+                }
+                if (streak == RECOVERY_STREAK) {
+                    return TimeUnit.NANOSECONDS.toMillis(streakStart - start);
+                }
+            } else {
+                streak = 0;
+            }
+        }
+        return RECOVERY_TIMEOUT_MILLIS;
+    }
+
+    private HttpResponse<Void> get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(BASE_URL + path))
+                .header("Authorization", "Bearer " + adminToken)
+                .timeout(Duration.ofSeconds(10))
+                .GET()
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding());
+    }
+
+    private HttpResponse<String> introspect(String... tokens) throws IOException, InterruptedException {
+        String body = "{\"tokens\": [\"" + String.join("\", \"", tokens) + "\"]}";
+        HttpRequest request = HttpRequest.newBuilder(URI.create(BASE_URL + "/api/auth/introspect"))
+                .header("Authorization", "Bearer " + adminToken)
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(10))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static long revocationFallbacks() {
+        return (Long) Metrics.snapshot().get("revocation.fallbacks");
+    }
+
+    private Sample send() {
+        long start = System.nanoTime();
+        int status;
+        try {
+            status = get(TARGET_PATH).statusCode();
+        } catch (IOException e) {
+            status = -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            status = -1;
+        }
+        return new Sample(System.nanoTime() - start, status);
+    }
+
+    private static PhaseResult summarize(String name, List<Sample> samples) {
+        long[] millis = samples.stream().mapToLong(sample -> TimeUnit.NANOSECONDS.toMillis(sample.nanos())).sorted().toArray();
+        long errors = samples.stream().filter(sample -> sample.status() != 200).count();
+        double errorRate = samples.isEmpty() ? 0 : (double) errors / samples.size();
+        return new PhaseResult(name, samples.size(), errorRate, percentile(millis, 0.50), percentile(millis, 0.99),
+                millis.length == 0 ? 0 : millis[millis.length - 1]);
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(sorted.length * quantile) - 1;
+        return sorted[Math.max(0, index)];
+    }
+
+    private static void writeReport(List<PhaseResult> phases, long recoveryMillis) throws IOException {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.ROOT, "clients=%d phaseMillis=%d target=%s%n", CLIENTS, PHASE_MILLIS, TARGET_PATH));
+        phases.forEach(phase -> report.append(phase.describe()).append(System.lineSeparator()));
+        report.append(String.format(Locale.ROOT, "recovery=%dms%n", recoveryMillis));
+
+        Path directory = Path.of(System.getProperty("resilience.reportDir", "build/reports/resilience"));
+        Files.createDirectories(directory);
+        Files.writeString(directory.resolve("degraded-database.txt"), report);
+        System.out.print(report);
+    }
+}
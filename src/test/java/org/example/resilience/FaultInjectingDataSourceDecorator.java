@@ -0,0 +1,75 @@
+package org.example.resilience;
+
+import org.example.config.DataSourceDecorator;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+/**
+ * Envuelve los DataSource de DatabaseConfig para aplicar las reglas de FaultInjection. Se activa con
+ * DB_DATASOURCE_DECORATOR=org.example.resilience.FaultInjectingDataSourceDecorator.
+ */
+public class FaultInjectingDataSourceDecorator implements DataSourceDecorator {
+
+    @Override
+    public DataSource decorate(String poolName, DataSource dataSource) {
+        return proxy(DataSource.class, (method, args) -> {
+            if (method.getName().equals("getConnection")) {
+                FaultInjection.beforeAcquire(poolName);
+                return wrapConnection((Connection) invoke(dataSource, method, args));
+            }
+            return invoke(dataSource, method, args);
+        });
+    }
+
+    private static Connection wrapConnection(Connection connection) {
+        return proxy(Connection.class, (method, args) -> {
+            Object result = invoke(connection, method, args);
+            if (result instanceof PreparedStatement statement && method.getName().startsWith("prepare")) {
+                return wrapStatement(statement, (String) args[0]);
+            }
+            if (result instanceof Statement statement && method.getName().equals("createStatement")) {
+                return wrapStatement(statement, null);
+            }
+            return result;
+        });
+    }
+
+    // Las sentencias preparadas traen el SQL de prepareStatement; las simples, del propio execute.
+    private static Statement wrapStatement(Statement statement, String preparedSql) {
+        Class<? extends Statement> type = statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+        return proxy(type, (method, args) -> {
+            if (method.getName().startsWith("execute")) {
+                String sql = preparedSql;
+                if (sql == null && args != null && args.length > 0 && args[0] instanceof String text) {
+                    sql = text;
+                }
+                FaultInjection.beforeExecute(sql);
+            }
+            return invoke(statement, method, args);
+        });
+    }
+
+    @FunctionalInterface
+    private interface Interceptor {
+        Object intercept(Method method, Object[] args) throws Throwable;
+    }
+
+    private static <T> T proxy(Class<T> type, Interceptor interceptor) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> interceptor.intercept(method, args)));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
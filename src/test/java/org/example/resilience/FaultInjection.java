@@ -0,0 +1,115 @@
+package org.example.resilience;
+
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Reglas de fallo que aplica FaultInjectingDataSourceDecorator. Son globales y se pueden cambiar
+ * en caliente desde una prueba: latencia por patrón de SQL, esperas al pedir una conexión y
+ * errores intermitentes. Sin reglas, el DataSource se comporta igual que el pool real.
+ */
+public final class FaultInjection {
+
+    /** Latencia en milisegundos que se añade en cada llamada afectada. */
+    @FunctionalInterface
+    public interface LatencyDistribution {
+        long sampleMillis();
+
+        static LatencyDistribution fixed(long millis) {
+            return () -> millis;
+        }
+
+        static LatencyDistribution uniform(long minMillis, long maxMillis) {
+            return () -> ThreadLocalRandom.current().nextLong(minMillis, maxMillis + 1);
+        }
+
+        // Cola larga: la mayoría de llamadas se retrasan poco y unas pocas mucho.
+        static LatencyDistribution exponential(long meanMillis) {
+            return () -> (long) (-meanMillis * Math.log(1 - ThreadLocalRandom.current().nextDouble()));
+        }
+    }
+
+    private record LatencyRule(Pattern sql, LatencyDistribution latency) {
+    }
+
+    private record ErrorRule(Pattern sql, double rate) {
+    }
+
+    private static final String CONNECTION_FAILURE_STATE = "08S01";
+
+    private static final List<LatencyRule> latencyRules = new CopyOnWriteArrayList<>();
+    private static final List<ErrorRule> errorRules = new CopyOnWriteArrayList<>();
+    private static volatile LatencyDistribution acquireStall;
+    private static volatile double acquireErrorRate;
+
+    private FaultInjection() {
+    }
+
+    /** Retrasa las sentencias cuyo SQL contiene el patrón (búsqueda, no coincidencia completa). */
+    public static void addLatency(String sqlRegex, LatencyDistribution latency) {
+        latencyRules.add(new LatencyRule(Pattern.compile(sqlRegex, Pattern.CASE_INSENSITIVE), latency));
+    }
+
+    /** Hace fallar con la probabilidad indicada las sentencias cuyo SQL contiene el patrón. */
+    public static void addErrors(String sqlRegex, double rate) {
+        errorRules.add(new ErrorRule(Pattern.compile(sqlRegex, Pattern.CASE_INSENSITIVE), rate));
+    }
+
+    public static void setAcquireStall(LatencyDistribution stall) {
+        acquireStall = stall;
+    }
+
+    public static void setAcquireErrorRate(double rate) {
+        acquireErrorRate = rate;
+    }
+
+    public static void reset() {
+        latencyRules.clear();
+        errorRules.clear();
+        acquireStall = null;
+        acquireErrorRate = 0;
+    }
+
+    static void beforeAcquire(String poolName) throws SQLException {
+        LatencyDistribution stall = acquireStall;
+        if (stall != null) {
+            sleep(stall.sampleMillis());
+        }
+        if (acquireErrorRate > 0 && ThreadLocalRandom.current().nextDouble() < acquireErrorRate) {
+            throw new SQLTransientConnectionException("Fallo inyectado al obtener conexión de " + poolName, CONNECTION_FAILURE_STATE);
+        }
+    }
+
+    static void beforeExecute(String sql) throws SQLException {
+        if (sql == null) {
+            return;
+        }
+        for (LatencyRule rule : latencyRules) {
+            if (rule.sql().matcher(sql).find()) {
+                sleep(rule.latency().sampleMillis());
+            }
+        }
+        for (ErrorRule rule : errorRules) {
+            if (rule.sql().matcher(sql).find() && ThreadLocalRandom.current().nextDouble() < rule.rate()) {
+                throw new SQLException("Fallo inyectado en: " + sql, CONNECTION_FAILURE_STATE);
+            }
+        }
+    }
+
+    private static void sleep(long millis) throws SQLException {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrumpido durante una latencia inyectada", CONNECTION_FAILURE_STATE, e);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package org.example.utils;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import javax.crypto.SecretKey;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JwtMinterTest {
+
+    private static final SecretKey KEY = Keys.hmacShaKeyFor(new byte[64]);
+    private static final long ISSUED_AT = 1_760_000_000L;
+    private static final long EXPIRES_AT = ISSUED_AT + 24 * 60 * 60;
+
+    private final JwtMinter minter = new JwtMinter(KEY);
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "admin@system.com",
+            "comillas\"y\\barra@test.com",
+            "control\b\f\n\r\t\u0001\u001f@test.com",
+            "ñandú+🚀@test.com"
+    })
+    @DisplayName("El token coincide byte a byte con el de Jwts.builder() para los mismos claims")
+    void mintMatchesJjwtBuilder(String email) {
+        String expected = Jwts.builder()
+                .setSubject("42")
+                .claim("email", email)
+                .claim("role", "WAITER")
+                .setIssuedAt(new Date(ISSUED_AT * 1000))
+                .setExpiration(new Date(EXPIRES_AT * 1000))
+                .signWith(KEY)
+                .compact();
+
+        assertThat(minter.mint(42, email, "WAITER", ISSUED_AT, EXPIRES_AT)).isEqualTo(expected);
+    }
+}
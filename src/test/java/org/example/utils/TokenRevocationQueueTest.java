@@ -0,0 +1,128 @@
+package org.example.utils;
+
+import org.example.daos.BlacklistDAO;
+import org.example.models.RevokedToken;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TokenRevocationQueueTest {
+
+    private static final Timestamp EXPIRY = new Timestamp(System.currentTimeMillis() + 60_000);
+
+    /**
+     * BlacklistDAO sin base de datos: registra los lotes y las escrituras síncronas. El primer lote
+     * espera a que se abra la compuerta.
+     */
+    private static class RecordingBlacklistDAO extends BlacklistDAO {
+        final List<List<String>> batches = new CopyOnWriteArrayList<>();
+        final List<String> synchronousSaves = new CopyOnWriteArrayList<>();
+        final CountDownLatch firstBatchEntered = new CountDownLatch(1);
+        final CountDownLatch gate;
+
+        RecordingBlacklistDAO(boolean gated) {
+            this.gate = new CountDownLatch(gated ? 1 : 0);
+        }
+
+        @Override
+        public void save(String token, Timestamp expiryDate) {
+            synchronousSaves.add(token);
+        }
+
+        @Override
+        public void saveAll(List<RevokedToken> tokens) {
+            firstBatchEntered.countDown();
+            try {
+                gate.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            batches.add(tokens.stream().map(RevokedToken::token).toList());
+        }
+
+        Set<String> persisted() {
+            Set<String> tokens = new HashSet<>(synchronousSaves);
+            batches.forEach(tokens::addAll);
+            return tokens;
+        }
+    }
+
+    @Test
+    @DisplayName("Las revocaciones que llegan durante un volcado se escriben juntas en el siguiente lote")
+    void revocationsQueuedDuringAFlushAreWrittenAsOneBatch() throws InterruptedException {
+        RecordingBlacklistDAO dao = new RecordingBlacklistDAO(true);
+        TokenRevocationQueue queue = new TokenRevocationQueue(dao, 100, 10);
+
+        queue.revoke("t0", EXPIRY);
+        assertThat(queue.isRevokedLocally("t0")).isTrue();
+        assertThat(dao.firstBatchEntered.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int i = 1; i <= 5; i++) {
+            queue.revoke("t" + i, EXPIRY);
+        }
+        dao.gate.countDown();
+        queue.close(5000);
+
+        assertThat(dao.batches).containsExactly(List.of("t0"), List.of("t1", "t2", "t3", "t4", "t5"));
+        assertThat(dao.synchronousSaves).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Al cerrar se vuelcan las pendientes y las posteriores se guardan de forma síncrona")
+    void closeFlushesPendingAndLaterRevocationsAreSynchronous() {
+        RecordingBlacklistDAO dao = new RecordingBlacklistDAO(false);
+        TokenRevocationQueue queue = new TokenRevocationQueue(dao, 100, 10);
+        for (int i = 0; i < 25; i++) {
+            queue.revoke("t" + i, EXPIRY);
+        }
+
+        queue.close(5000);
+        queue.revoke("late", EXPIRY);
+
+        assertThat(dao.batches).allSatisfy(batch -> assertThat(batch).hasSizeLessThanOrEqualTo(10));
+        assertThat(dao.batches.stream().mapToInt(List::size).sum()).isEqualTo(25);
+        assertThat(dao.synchronousSaves).containsExactly("late");
+    }
+
+    @Test
+    @DisplayName("Ninguna revocación concurrente con el cierre se pierde")
+    void noRevocationIsLostWhileClosing() throws Exception {
+        RecordingBlacklistDAO dao = new RecordingBlacklistDAO(false);
+        TokenRevocationQueue queue = new TokenRevocationQueue(dao, 10_000, 50);
+        ExecutorService revokers = Executors.newFixedThreadPool(4);
+        try {
+            CountDownLatch started = new CountDownLatch(4);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int thread = t;
+                futures.add(revokers.submit(() -> {
+                    started.countDown();
+                    for (int i = 0; i < 500; i++) {
+                        queue.revoke(thread + "-" + i, EXPIRY);
+                    }
+                }));
+            }
+            started.await(5, TimeUnit.SECONDS);
+            queue.close(5000);
+            for (Future<?> future : futures) {
+                future.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            revokers.shutdownNow();
+        }
+
+        assertThat(dao.persisted()).hasSize(2000);
+    }
+}